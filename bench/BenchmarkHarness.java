@@ -0,0 +1,128 @@
+// imports
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+// BenchmarkHarness: warmup + timed iterations reporting throughput and allocation per operation
+public class BenchmarkHarness {
+    // fields
+    private static final int BATCH = 256; // ops per timer read when no reset is needed
+    private static volatile long blackhole; // consumes results so the JIT cannot drop the work
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+    private final com.sun.management.ThreadMXBean threads;
+    private final List<Result> results = new ArrayList<>();
+
+    // constructor
+    public BenchmarkHarness(int warmupIterations, int measurementIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+
+    // Op: the measured operation; returns something derived from its work
+    public interface Op {
+        long run() throws Exception;
+    }
+
+    // Reset: untimed state preparation before each op
+    public interface Reset {
+        void run() throws Exception;
+    }
+
+    // Result: throughput mean/error across measurement iterations, allocated bytes per op and ops measured
+    public record Result(String name, double opsPerSecond, double error, double bytesPerOp, long ops) {}
+
+
+    // run: measures an op that can be repeated back to back, timing batches of calls
+    public Result run(String name, Op op) throws Exception {
+        return measure(name, null, op);
+    }
+
+    // run: measures an op that needs fresh state, timing each call after an untimed reset
+    public Result run(String name, Reset reset, Op op) throws Exception {
+        return measure(name, reset, op);
+    }
+
+
+    // measure: warms up, then runs the measurement iterations and prints one result line
+    private Result measure(String name, Reset reset, Op op) throws Exception {
+        long[] totals = new long[3]; // ops, timed nanos, allocated bytes
+
+        for(int i = 0; i < warmupIterations; i++) {
+            iteration(reset, op, totals);
+        }
+
+        double[] throughput = new double[measurementIterations];
+        long ops = 0;
+        long allocated = 0;
+        for(int i = 0; i < measurementIterations; i++) {
+            iteration(reset, op, totals);
+            throughput[i] = totals[0] * 1e9 / totals[1];
+            ops += totals[0];
+            allocated += totals[2];
+        }
+
+        double mean = 0;
+        for(double value : throughput) {
+            mean += value;
+        }
+        mean /= throughput.length;
+
+        double variance = 0;
+        for(double value : throughput) {
+            variance += (value - mean) * (value - mean);
+        }
+        double error = throughput.length > 1 ? Math.sqrt(variance / (throughput.length - 1)) : 0;
+
+        Result result = new Result(name, mean, error, (double) allocated / ops, ops);
+        results.add(result);
+        System.out.printf("%-32s %14.1f +- %10.1f ops/s %12.1f B/op %12d ops%n", name, mean, error, result.bytesPerOp(), ops);
+        return result;
+    }
+
+    // iteration: runs ops for the iteration time, timing only op() and its allocations. The loop stops on
+    // wall-clock time, resets included, so an op that needs a slow reset runs fewer times instead of longer
+    private void iteration(Reset reset, Op op, long[] totals) throws Exception {
+        long thread = Thread.currentThread().getId();
+        int batch = reset == null ? BATCH : 1;
+        long sink = 0;
+        long ops = 0;
+        long timed = 0;
+        long allocated = 0;
+        long wallStart = System.nanoTime();
+        long end = wallStart;
+
+        while(end - wallStart < iterationNanos) {
+            if(reset != null) {
+                reset.run();
+            }
+            long bytes = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            for(int i = 0; i < batch; i++) {
+                sink += op.run();
+            }
+            end = System.nanoTime();
+            timed += end - start;
+            allocated += threads.getThreadAllocatedBytes(thread) - bytes;
+            ops += batch;
+        }
+
+        blackhole = sink;
+        totals[0] = ops;
+        totals[1] = timed;
+        totals[2] = allocated;
+    }
+
+
+    // getters and setters
+    public List<Result> getResults() {
+        return results;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Purpose: Micro-benchmarks for the rules engine's hot paths
+ *
+ * Usage (from the bench directory):
+ *   javac -sourcepath ../src -d ../out/bench *.java
+ *   java -cp ../out/bench:../src EngineBenchmark [--warmup N] [--iterations N] [--time MS] [name filter ...]
+ */
+
+// imports
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class EngineBenchmark {
+    // fields
+    private static final long SEED = 42;
+
+    private GameManager game;
+    private GameContext context;
+    private Player player;
+    private Set set;
+    private String roleName;
+    private int step;
+    private long gameNumber;
+
+
+    // Main method
+    public static void main(String[] args) throws Exception {
+        int warmup = 3;
+        int iterations = 5;
+        long time = 1000;
+        List<String> filters = new ArrayList<>();
+
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+                case "--time" -> time = Long.parseLong(args[++i]);
+                default -> filters.add(args[i]);
+            }
+        }
+
+        System.out.printf("%d warmup and %d measurement iterations of %d ms each%n", warmup, iterations, time);
+        new EngineBenchmark().runAll(new BenchmarkHarness(warmup, iterations, time), filters);
+    }
+
+
+    // runAll: runs every benchmark whose name contains one of the filters (all of them if there are none)
+    private void runAll(BenchmarkHarness harness, List<String> filters) throws Exception {
+        GameTemplate template = GameTemplate.getDefault();
+
+        if(selected("load.xml", filters)) {
+            harness.run("load.xml", () -> GameTemplate.loadXml().getCards().size());
+        }
+        if(selected("load.binary", filters)) {
+            harness.run("load.binary", () -> BinaryGameData.loadDefault().getCards().size());
+        }
+        if(selected("template.newContext", filters)) {
+            harness.run("template.newContext", () -> template.newContext().getBoard().getOpenScenes());
+        }
+        if(selected("board.dealCards", filters)) {
+            harness.run("board.dealCards", () -> context = template.newContext(SEED),
+                    () -> { context.getBoard().dealCards(); return context.getBoard().getOpenScenes(); });
+        }
+
+        if(selected("game.getAvailableActions", filters)) {
+            playerAtSet(4);
+            harness.run("game.getAvailableActions", () -> game.getAvailableActions().size());
+        }
+        if(selected("game.getAvailableRoles", filters)) {
+            playerAtSet(4);
+            harness.run("game.getAvailableRoles", () -> game.getAvailableRoles().size());
+        }
+        if(selected("game.legalMoves", filters)) {
+            playerAtSet(4);
+            int[] buffer = new int[Moves.MAX_MOVES];
+            harness.run("game.legalMoves", () -> game.legalMoves(buffer));
+        }
+        if(selected("game.applyUndo", filters)) {
+            game = new GameManager(4, GameContext.newGame(SEED));
+            game.getJournal().setRecording(true);
+            int[] buffer = new int[Moves.MAX_MOVES];
+            harness.run("game.applyUndo", () -> {
+                int count = game.legalMoves(buffer);
+                game.apply(buffer[step++ % count]);
+                game.undo();
+                return count;
+            });
+        }
+        if(selected("game.snapshot", filters)) {
+            game = new GameManager(4, GameContext.newGame(SEED));
+            long[] state = new long[template.getStateCodec().words(4)];
+            harness.run("game.snapshot", () -> game.snapshot(state));
+        }
+        if(selected("game.restore", filters)) {
+            game = new GameManager(4, GameContext.newGame(SEED));
+            long[] state = game.snapshot();
+            harness.run("game.restore", () -> { game.restore(state); return game.getDays(); });
+        }
+        if(selected("game.copy", filters)) {
+            game = new GameManager(4, GameContext.newGame(SEED));
+            harness.run("game.copy", () -> game.copy(SEED).getDays());
+        }
+        if(selected("game.move", filters)) {
+            game = new GameManager(4, GameContext.newGame(SEED));
+            harness.run("game.move", () -> {
+                List<Location> neighbors = game.getCurrentPlayer().getLocation().getNeighbors();
+                game.move(neighbors.get(step++ % neighbors.size()).getName());
+                return game.getCurrentPlayer().getPosition()[0];
+            });
+        }
+        if(selected("game.move.byId", filters)) {
+            game = new GameManager(4, GameContext.newGame(SEED));
+            harness.run("game.move.byId", () -> {
+                LocationGraph graph = game.getContext().getBoard().getGraph();
+                int from = game.getCurrentPlayer().getLocation().getId();
+                game.move(graph.neighbor(from, step++ % graph.neighborCount(from)));
+                return game.getCurrentPlayer().getPosition()[0];
+            });
+        }
+        if(selected("game.takeRole", filters)) {
+            playerAtSet(4);
+            Role role = set.getRoles().get(0);
+            roleName = role.getName();
+            harness.run("game.takeRole", () -> { role.setTaken(false); player.setRole(); },
+                    () -> { game.takeRole(roleName); return player.getPosition()[1]; });
+        }
+        if(selected("game.takeRole.byId", filters)) {
+            playerAtSet(4);
+            Role role = set.getRoles().get(0);
+            harness.run("game.takeRole.byId", () -> { role.setTaken(false); player.setRole(); },
+                    () -> { game.takeRole(role.getId()); return player.getPosition()[1]; });
+        }
+        if(selected("game.endTurn", filters)) {
+            game = new GameManager(8, GameContext.newGame(SEED));
+            harness.run("game.endTurn", () -> { game.endTurn(); return game.getCurrentPlayer().getRank(); });
+        }
+        if(selected("game.act", filters)) {
+            harness.run("game.act", () -> actorAtSet(false), () -> game.act()[1]);
+        }
+        if(selected("game.act.result", filters)) {
+            ActResult result = new ActResult();
+            harness.run("game.act.result", () -> actorAtSet(false), () -> game.act(result).getRoll());
+        }
+        if(selected("game.act.wrapScene", filters)) {
+            harness.run("game.act.wrapScene", () -> actorAtSet(true), () -> game.act()[2] + player.getDollars());
+        }
+        if(selected("game.full", filters)) {
+            harness.run("game.full", this::playFullGame);
+        }
+    }
+
+
+    //********************************************************************************
+    //                                  Fixtures
+    //********************************************************************************
+
+    // playerAtSet: new game whose current player stands, without a role, on the first set next to the trailer
+    private void playerAtSet(int numPlayers) throws Exception {
+        game = new GameManager(numPlayers, GameContext.newGame(SEED));
+        player = game.getCurrentPlayer();
+        player.setRank(6); // every role is available
+        for(Location neighbor : player.getLocation().getNeighbors()) {
+            if(neighbor instanceof Set s) {
+                game.move(s.getName());
+                set = s;
+                return;
+            }
+        }
+        throw new IllegalStateException("Trailer has no neighboring set");
+    }
+
+    // actorAtSet: current player holds a role; for a wrap it is on-card, on the last take, and cannot miss
+    private void actorAtSet(boolean wrap) throws Exception {
+        playerAtSet(4);
+        if(wrap) {
+            game.takeRole(set.getScene().getRoles().get(0).getName());
+            while(set.getTakes().size() > 1) {
+                set.decrementTakes();
+            }
+            for(int i = 0; i < set.getScene().getBudget(); i++) {
+                player.addPracticeChips();
+            }
+        } else {
+            game.takeRole(set.getRoles().get(0).getName());
+        }
+    }
+
+    // playFullGame: plays the next game in a fixed sequence of seeded four player games
+    private long playFullGame() throws Exception {
+        SplittableRandom rand = new SplittableRandom(Simulator.gameSeed(SEED, gameNumber++));
+        GameManager fullGame = new GameManager(4, GameContext.newGame(rand.nextLong()));
+        List<MoveChooser> choosers = new ArrayList<>();
+        for(int p = 0; p < 4; p++) {
+            choosers.add(new RandomMoveChooser(rand.split()));
+        }
+
+        Simulation simulation = new Simulation(fullGame, choosers);
+        simulation.play();
+        return simulation.getSteps();
+    }
+
+    private static boolean selected(String name, List<String> filters) {
+        if(filters.isEmpty()) {
+            return true;
+        }
+        for(String filter : filters) {
+            if(name.contains(filter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Purpose: Compares the XML and precompiled binary load paths for the board and cards
+ *
+ * Usage (from the bench directory, see EngineBenchmark): java -cp ../out/bench:../src LoadBenchmark [iterations]
+ */
+
+// imports
+
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class LoadBenchmark {
+
+    // Main method
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        URL url = LoadBenchmark.class.getResource(BinaryGameData.DEFAULT_FILE);
+        if(url == null || !url.getProtocol().equals("file")) {
+            System.out.println("No precompiled board found; run BoardCompiler first.");
+            return;
+        }
+        Path binary = Paths.get(url.toURI());
+
+        // first load in a fresh JVM is what a headless worker pays at startup
+        long start = System.nanoTime();
+        GameTemplate.loadXml();
+        long coldXml = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        BinaryGameData.load(binary);
+        long coldBinary = System.nanoTime() - start;
+
+        int sink = 0;
+        for(int i = 0; i < iterations; i++) { // warm up both paths before timing
+            sink += GameTemplate.loadXml().getCards().size();
+            sink += BinaryGameData.load(binary).getCards().size();
+        }
+
+        start = System.nanoTime();
+        for(int i = 0; i < iterations; i++) {
+            sink += GameTemplate.loadXml().getCards().size();
+        }
+        long warmXml = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for(int i = 0; i < iterations; i++) {
+            sink += BinaryGameData.load(binary).getCards().size();
+        }
+        long warmBinary = System.nanoTime() - start;
+
+        System.out.printf("%-8s %12s %14s%n", "path", "cold (us)", "warm (us/op)");
+        System.out.printf("%-8s %12.0f %14.1f%n", "xml", coldXml / 1e3, warmXml / 1e3 / iterations);
+        System.out.printf("%-8s %12.0f %14.1f%n", "binary", coldBinary / 1e3, warmBinary / 1e3 / iterations);
+        System.out.printf("speedup: %.1fx cold, %.1fx warm (checksum %d)%n",
+                (double) coldXml / coldBinary, (double) warmXml / warmBinary, sink);
+    }
+}
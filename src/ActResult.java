@@ -0,0 +1,40 @@
+// imports
+
+/*
+ * ActResult: the outcome of an act, filled in by GameManager.act(ActResult) so callers can keep one
+ * instance and reuse it every turn. Reads the same packed flags that GameManager.apply returns.
+ */
+public final class ActResult {
+    // fields
+    private int result; // Moves act flags plus the roll
+
+    // getters and setters
+    void set(int result) {
+        this.result = result;
+    }
+
+    public boolean isSuccess() {
+        return (result & Moves.SUCCESS) != 0;
+    }
+
+    public int getRoll() {
+        return Moves.roll(result);
+    }
+
+    public boolean isBonusRolled() {
+        return (result & Moves.BONUS_ROLLED) != 0;
+    }
+
+    public boolean isDayEnded() {
+        return (result & Moves.DAY_ENDED) != 0;
+    }
+
+    public boolean isGameOver() {
+        return (result & Moves.GAME_OVER) != 0;
+    }
+
+    // getPacked: the same value as Moves encodes act results
+    public int getPacked() {
+        return result;
+    }
+}
@@ -0,0 +1,141 @@
+// imports
+
+import javax.xml.stream.XMLStreamException;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * AssetPreloader: decodes the board, cards, tokens and shot marker into an ImageCache on background
+ * threads, starting as soon as the program does, and then packs them into a SpriteAtlas. The GUI
+ * installs the board image and the atlas from callbacks on the futures as each completes and polls
+ * getLoaded and getTotal to show progress, so the event thread never decodes or waits on a decode.
+ */
+public final class AssetPreloader {
+    // fields
+    public static final String BOARD = "/resources/images/board.jpg";
+    private static final List<String> EXTRAS = List.of("/resources/images/dw_icon.jpg", // window and upgrade dialog
+            "/resources/images/tokens/w1.png", "/resources/images/tokens/w2.png", "/resources/images/tokens/w3.png",
+            "/resources/images/tokens/w4.png", "/resources/images/tokens/w5.png", "/resources/images/tokens/w6.png");
+
+    private final ImageCache images;
+    private final ExecutorService pool;
+    private final CompletableFuture<BufferedImage> board;
+    private final CompletableFuture<Void> decoded; // every image in the cache
+    private final CompletableFuture<SpriteAtlas> atlas;
+    private final AtomicInteger loaded = new AtomicInteger();
+    private final AtomicInteger total = new AtomicInteger();
+
+    // constructor
+    private AssetPreloader(ImageCache images, int threads) {
+        this.images = images;
+        this.pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "asset-preloader");
+            thread.setDaemon(true); // never keeps the program alive
+            return thread;
+        });
+
+        this.board = load(BOARD);
+        List<CompletableFuture<?>> extras = new ArrayList<>();
+        for(String path : EXTRAS) {
+            extras.add(load(path));
+        }
+
+        CompletableFuture<List<SpriteAtlas.Entry>> entries = CompletableFuture.supplyAsync(() -> {
+            try {
+                return SpriteAtlas.forDefaultGame();
+            } catch(XMLStreamException e) {
+                throw new CompletionException(e);
+            }
+        }, pool);
+        this.decoded = entries.thenCompose(list -> {
+            List<CompletableFuture<?>> loads = new ArrayList<>(extras);
+            for(List<SpriteAtlas.Entry> sizes : byPath(list).values()) {
+                loads.add(load(sizes));
+            }
+            return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0]));
+        });
+
+        total.incrementAndGet(); // packing counts as one more step
+        this.atlas = decoded.thenCombineAsync(entries, (ignored, list) -> {
+            SpriteAtlas packed = SpriteAtlas.pack(images, list, SpriteAtlas.PAGE_SIZE);
+            loaded.incrementAndGet();
+            return packed;
+        }, pool);
+        atlas.whenComplete((packed, error) -> pool.shutdown());
+    }
+
+
+    // start: begins loading into images on one thread per core
+    public static AssetPreloader start(ImageCache images) {
+        return new AssetPreloader(images, Math.max(1, Runtime.getRuntime().availableProcessors()));
+    }
+
+
+    // load: decodes one image at its natural size
+    private CompletableFuture<BufferedImage> load(String path) {
+        total.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> {
+            BufferedImage image = images.get(path);
+            loaded.incrementAndGet();
+            return image;
+        }, pool);
+    }
+
+
+    // load: decodes one image and scales it to every size in sizes, in one task so it is decoded once
+    private CompletableFuture<Void> load(List<SpriteAtlas.Entry> sizes) {
+        total.incrementAndGet();
+        return CompletableFuture.runAsync(() -> {
+            for(SpriteAtlas.Entry entry : sizes) {
+                images.get(entry.path(), entry.width(), entry.height());
+            }
+            loaded.incrementAndGet();
+        }, pool);
+    }
+
+
+    private static Map<String, List<SpriteAtlas.Entry>> byPath(List<SpriteAtlas.Entry> entries) {
+        Map<String, List<SpriteAtlas.Entry>> paths = new LinkedHashMap<>();
+        for(SpriteAtlas.Entry entry : entries) {
+            paths.computeIfAbsent(entry.path(), path -> new ArrayList<>()).add(entry);
+        }
+        return paths;
+    }
+
+
+    // getters and setters
+    public ImageCache getImages() {
+        return images;
+    }
+
+    // getBoard: the board image, decoded first
+    public CompletableFuture<BufferedImage> getBoard() {
+        return board;
+    }
+
+    // getAtlas: the packed cards, tokens and shots; completes exceptionally if any of them failed to load
+    public CompletableFuture<SpriteAtlas> getAtlas() {
+        return atlas;
+    }
+
+    // getLoaded: steps finished so far, out of getTotal (which grows once the card list is read)
+    public int getLoaded() {
+        return loaded.get();
+    }
+
+    public int getTotal() {
+        return total.get();
+    }
+
+    public boolean isDone() {
+        return atlas.isDone();
+    }
+}
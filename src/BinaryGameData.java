@@ -0,0 +1,246 @@
+// imports
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/*
+ * BinaryGameData: loads a board and deck precompiled by BoardCompiler.
+ *
+ * Layout (big-endian):
+ *   int magic, int version, long sourceHash, int boardName
+ *   strings:   int count, then per string an int byte length and UTF-8 bytes
+ *   areas:     int count, int[count * 4]  x, y, h, w
+ *   roles:     int count, int[count * 5]  name, rank, area, line, onCard
+ *   takes:     int count, int[count * 2]  number, area
+ *   upgrades:  int count, int[count * 4]  rank, currency, price, area
+ *   neighbors: int count, int[count]      neighbor name
+ *   locations: int count, int[count * 9]  kind, name, area, neighbor start/end, take start/end, role or upgrade start/end
+ *   cards:     int count, int[count * 7]  name, number, description, budget, img, role start/end
+ *
+ * Every name, line, currency, description and image path is an index into the string table;
+ * every start/end pair is a half-open range into the roles, takes, upgrades or neighbors array.
+ * sourceHash is sourceHash() of the XML the file was compiled from; loadDefault ignores a file whose
+ * hash no longer matches the bundled XML, so editing the XML without rerunning BoardCompiler still works.
+ */
+public final class BinaryGameData {
+    // fields
+    public static final String DEFAULT_FILE = "/resources/data/deadwood.bin";
+    public static final int MAGIC = 0x44574244; // "DWBD"
+    public static final int VERSION = 2;
+    private static final String BOARD_XML = "/resources/xml/board.xml";
+    private static final String CARD_XML = "/resources/xml/cards.xml";
+    private static final System.Logger LOG = System.getLogger(BinaryGameData.class.getName());
+
+    public static final int SET = 0;
+    public static final int TRAILER = 1;
+    public static final int OFFICE = 2;
+
+    private final ByteBuffer buffer;
+    private String[] strings;
+    private Area[] areas;
+    private int[] roles;
+    private int[] takes;
+    private int[] upgrades;
+    private int[] neighbors;
+
+    // constructor
+    private BinaryGameData(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+
+    // loadDefault: loads the bundled binary board, or returns null so the caller can fall back to XML
+    // when there is none, it can't be read, or it was compiled from different XML than is bundled now
+    public static GameTemplate loadDefault() {
+        URL url = BinaryGameData.class.getResource(DEFAULT_FILE);
+        if(url == null) {
+            return null;
+        }
+
+        try {
+            ByteBuffer buffer;
+            if(url.getProtocol().equals("file")) {
+                buffer = map(Paths.get(url.toURI()));
+            } else {
+                try(InputStream in = url.openStream()) { // packaged in a jar, so it cannot be mapped
+                    buffer = ByteBuffer.wrap(in.readAllBytes());
+                }
+            }
+
+            Long expected = bundledSourceHash();
+            if(expected != null && expected != sourceHash(buffer)) {
+                LOG.log(System.Logger.Level.WARNING, DEFAULT_FILE + " is older than the XML board files; loading the XML "
+                        + "instead. Run BoardCompiler to rebuild it.");
+                return null;
+            }
+            return read(buffer);
+        } catch (IOException | URISyntaxException | RuntimeException ex) {
+            LOG.log(System.Logger.Level.WARNING, "Could not load " + DEFAULT_FILE + "; loading the XML board files instead", ex);
+            return null;
+        }
+    }
+
+    // load: maps a precompiled board file read-only and decodes it
+    public static GameTemplate load(Path file) throws IOException {
+        return read(map(file));
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // stays valid after closing
+        }
+    }
+
+
+    // sourceHash: identifies the XML a board is compiled from, its total length above a CRC-32 of both files
+    public static long sourceHash(byte[] board, byte[] cards) {
+        CRC32 crc = new CRC32();
+        crc.update(board);
+        crc.update(cards);
+        return (long) (board.length + cards.length) << 32 | crc.getValue();
+    }
+
+    // sourceHash: the hash a precompiled board was written with, read without moving the buffer
+    public static long sourceHash(ByteBuffer buffer) throws IOException {
+        checkHeader(buffer.duplicate());
+        return buffer.getLong(buffer.position() + 2 * Integer.BYTES);
+    }
+
+    // bundledSourceHash: sourceHash of the XML on the classpath, or null if it isn't there to compare with
+    private static Long bundledSourceHash() throws IOException {
+        try(InputStream board = BinaryGameData.class.getResourceAsStream(BOARD_XML);
+            InputStream cards = BinaryGameData.class.getResourceAsStream(CARD_XML)) {
+            if(board == null || cards == null) {
+                return null;
+            }
+            return sourceHash(board.readAllBytes(), cards.readAllBytes());
+        }
+    }
+
+    private static void checkHeader(ByteBuffer buffer) throws IOException {
+        if(buffer.remaining() < 4 * Integer.BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Not a version " + VERSION + " Deadwood board file");
+        }
+    }
+
+    // read: decodes a precompiled board from a buffer positioned at the magic number
+    public static GameTemplate read(ByteBuffer buffer) throws IOException {
+        return new BinaryGameData(buffer).decode();
+    }
+
+
+    // decode: reads every section in file order and rebuilds the template prototypes
+    private GameTemplate decode() throws IOException {
+        checkHeader(buffer);
+        buffer.getLong(); // sourceHash, only checked by loadDefault
+        int boardName = buffer.getInt();
+
+        readStrings();
+        readAreas();
+        roles = readInts(5);
+        takes = readInts(2);
+        upgrades = readInts(4);
+        neighbors = readInts(1);
+        int[] locationData = readInts(9);
+        int[] cardData = readInts(7);
+
+        List<Location> locations = new ArrayList<>();
+        for(int i = 0; i < locationData.length; i += 9) {
+            locations.add(createLocation(locationData, i));
+        }
+
+        List<Card> cards = new ArrayList<>();
+        for(int i = 0; i < cardData.length; i += 7) {
+            List<Role> cardRoles = createRoles(cardData[i + 5], cardData[i + 6]);
+            cards.add(new Card(strings[cardData[i]], cardData[i + 1], strings[cardData[i + 2]], cardData[i + 3],
+                               cardRoles, strings[cardData[i + 4]], false));
+        }
+
+        return new GameTemplate(strings[boardName], locations, cards);
+    }
+
+    // createLocation: builds one location prototype from its record
+    private Location createLocation(int[] data, int i) throws IOException {
+        String name = strings[data[i + 1]];
+        Area area = areas[data[i + 2]];
+
+        List<String> locationNeighbors = new ArrayList<>();
+        for(int n = data[i + 3]; n < data[i + 4]; n++) {
+            locationNeighbors.add(strings[neighbors[n]]);
+        }
+
+        switch(data[i]) {
+            case SET -> {
+                List<Take> setTakes = new ArrayList<>();
+                for(int t = data[i + 5]; t < data[i + 6]; t++) {
+                    setTakes.add(new Take(takes[t * 2], areas[takes[t * 2 + 1]]));
+                }
+                return new Set(name, locationNeighbors, area, null, setTakes, createRoles(data[i + 7], data[i + 8]));
+            }
+            case TRAILER -> {
+                return new Trailer(name, locationNeighbors, area);
+            }
+            case OFFICE -> {
+                List<Upgrade> officeUpgrades = new ArrayList<>();
+                for(int u = data[i + 7]; u < data[i + 8]; u++) {
+                    int base = u * 4;
+                    officeUpgrades.add(new Upgrade(upgrades[base], strings[upgrades[base + 1]], upgrades[base + 2],
+                                                   areas[upgrades[base + 3]]));
+                }
+                return new CastingOffice(name, locationNeighbors, area, officeUpgrades);
+            }
+            default -> throw new IOException("Unknown location kind " + data[i]);
+        }
+    }
+
+    // createRoles: builds the roles in the half-open range [start, end)
+    private List<Role> createRoles(int start, int end) {
+        List<Role> result = new ArrayList<>(end - start);
+        for(int r = start; r < end; r++) {
+            int base = r * 5;
+            result.add(new Role(strings[roles[base]], roles[base + 1], areas[roles[base + 2]], strings[roles[base + 3]],
+                                roles[base + 4] == 1, false));
+        }
+        return result;
+    }
+
+    private void readStrings() {
+        strings = new String[buffer.getInt()];
+        byte[] bytes = new byte[64];
+        for(int i = 0; i < strings.length; i++) {
+            int length = buffer.getInt();
+            if(bytes.length < length) {
+                bytes = new byte[length];
+            }
+            buffer.get(bytes, 0, length);
+            strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    private void readAreas() {
+        int[] data = readInts(4);
+        areas = new Area[data.length / 4];
+        for(int i = 0; i < areas.length; i++) {
+            areas[i] = new Area(data[i * 4], data[i * 4 + 1], data[i * 4 + 2], data[i * 4 + 3]);
+        }
+    }
+
+    // readInts: reads a section count followed by count records of the given width
+    private int[] readInts(int width) {
+        int[] data = new int[buffer.getInt() * width];
+        buffer.asIntBuffer().get(data);
+        buffer.position(buffer.position() + data.length * Integer.BYTES);
+        return data;
+    }
+}
@@ -2,35 +2,41 @@
 
 import java.util.Map;
 
-public class Board {
+public class Board implements Journal.Target {
     // fields
-    private static Board board;
     private final String name;
     private final Map<String, Location> locations;
+    private final LocationGraph graph;
+    private final Location[] byId; // locations indexed by graph id
+    private final Set[] sets; // every set, in location id order
     private int openScenes;
     private final Deck deck;
+    private Journal journal;
+
+    // journaled fields
+    private static final int OPEN_SCENES = 0;
 
     // constructor
-    private Board(String n, Map<String, Location> l, int o) {
+    public Board(String n, Map<String, Location> l, LocationGraph g, int o, Deck d) {
         this.name = n;
         this.locations = l;
-        setOpenScenes(o);
-        this.deck = Deck.getInstance();
-        dealCards();
-    }
-
-    public static Board getInstance() {
-        if(board == null) {
-            throw new IllegalStateException("Board has not been initialized");
+        this.graph = g;
+        this.byId = new Location[g.size()];
+        int setCount = 0;
+        for (Location location : l.values()) {
+            byId[location.getId()] = location;
+            setCount += location instanceof Set ? 1 : 0;
         }
-        return board;
-    }
-
-    public static void initializeBoard(String n, Map<String, Location> l, int o) {
-        if(board != null) {
-            throw new IllegalStateException("Board has already been initialized");
+        this.sets = new Set[setCount];
+        int s = 0;
+        for (Location location : byId) {
+            if (location instanceof Set set) {
+                sets[s++] = set;
+            }
         }
-        board = new Board(n, l, o);
+        setOpenScenes(o);
+        this.deck = d;
+        dealCards();
     }
 
     // getters and setters
@@ -40,7 +46,21 @@ public class Board {
 
 
     public Location getLocation(String name){
-        return getAllLocations().get(name);
+        int id = graph.idOf(name);
+        return id == LocationGraph.UNREACHABLE ? null : byId[id];
+    }
+
+    public Location getLocation(int id){
+        return byId[id];
+    }
+
+    // getSets: every set on the board; shared, so callers must not modify it
+    public Set[] getSets(){
+        return this.sets;
+    }
+
+    public LocationGraph getGraph(){
+        return this.graph;
     }
 
     public Map<String, Location> getAllLocations(){
@@ -53,20 +73,75 @@ public class Board {
     }
 
     public void setOpenScenes(int o){
+        if(journal != null) journal.record(this, OPEN_SCENES, this.openScenes, o);
         this.openScenes = o;
     }
 
 
+    // setJournal: journals the board, its deck and every set on it
+    public void setJournal(Journal journal){
+        this.journal = journal;
+        deck.setJournal(journal);
+        for (Location location : byId) {
+            if (location instanceof Set set) {
+                set.setJournal(journal);
+            }
+        }
+    }
+
+    // restore: puts back a journaled field without journaling it again
+    @Override
+    public void restore(int field, long value, Object ref){
+        if(field != OPEN_SCENES) {
+            throw new IllegalArgumentException("Unknown board field " + field);
+        }
+        this.openScenes = (int) value;
+    }
+
+    @Override
+    public long hashKey(int field, long value, Object ref){
+        return Zobrist.key(Zobrist.BOARD, field, 0, value);
+    }
+
+    // stateHash: open scenes, the deck and every set
+    public long stateHash(){
+        long hash = hashKey(OPEN_SCENES, openScenes, null) ^ deck.stateHash();
+        for (Location location : byId) {
+            if (location instanceof Set set) {
+                hash ^= set.stateHash();
+            }
+        }
+        return hash;
+    }
+
+
     public boolean checkEndDay(){
         return getOpenScenes() == 1;
     }
 
 
+    // copyFrom: copies open scenes and every set's state from the same board in another game
+    public void copyFrom(Board other, Card[] cardsById) {
+        setOpenScenes(other.openScenes);
+        for (int i = 0; i < sets.length; i++) {
+            sets[i].copyFrom(other.sets[i], cardsById);
+        }
+    }
+
+
     public void dealCards() {
-        for (Location location : locations.values()) {
-            if (location instanceof Set set) {
-                set.setScene(null); // clear the scene
-                set.setScene(deck.drawScene());
+        for (Set set : sets) {
+            set.setScene(null); // clear the scene
+            set.setScene(deck.drawScene());
+        }
+    }
+
+
+    // resetSets: frees the off-card roles and restores the takes of every set used since its last reset
+    public void resetSets() {
+        for (Set set : sets) {
+            if (set.isDirty()) {
+                set.reset();
             }
         }
     }
@@ -0,0 +1,395 @@
+// imports
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/*
+ * BoardCanvas: the board image with its cards, shot markers and player tokens, drawn by one component.
+ * The composed board lives in an off-screen buffer at the board's natural size. sync compares the game
+ * with what the buffer shows, redraws only the rectangles that changed and repaints just those, so a
+ * refresh costs as much as the action changed. paintComponent copies the buffer at the current zoom and
+ * draws the card under the mouse at full size on top. Hover uses a grid over the card areas instead of
+ * a listener per card. Ctrl + mouse wheel zooms; the enclosing scroll pane scrolls. Cards, tokens and
+ * shots come from a SpriteAtlas once one is set, and from the ImageCache before that. The canvas can be
+ * shown before the board image is decoded: it stays blank, and the last game synced is drawn once
+ * setBoard supplies the board.
+ */
+public class BoardCanvas extends JComponent {
+    // fields
+    private static final long serialVersionUID = 1L;
+    private static final String CARD_BACK = "/resources/images/cards/CardBack.jpg";
+    private static final Dimension PLACEHOLDER = new Dimension(1200, 900); // the bundled board's size, until the board arrives
+    private static final int CELL = 64; // side of a hover grid cell, in board pixels
+    private static final double MIN_ZOOM = 0.25;
+    private static final double MAX_ZOOM = 2.0;
+
+    private final ImageCache images;
+    private SpriteAtlas atlas; // null until it has been built; images are drawn from the cache until then
+    private BufferedImage board; // null until setBoard
+    private BufferedImage buffer; // the board with everything synced drawn on it
+    private double zoom = 1.0;
+    private GameManager game; // last game synced, drawn again when the board arrives
+
+    private Set[] sets; // by index in Board.getSets(), from the game last synced
+    private String[] cardPaths; // image drawn for each set's card, null when none
+    private boolean[][] takesShown; // [set index][take index in Set.getAllTakes()]
+    private String[] tokenPaths; // by player id
+    private Rectangle[] tokenBounds; // by player id, in board pixels
+    private int[][] grid; // set indexes whose card touches each hover cell, row by row
+    private int columns;
+    private int hovered = -1; // set whose card is shown at full size
+    private final List<Rectangle> dirty = new ArrayList<>(); // areas of the buffer to redraw, in board pixels
+
+    // constructor: a blank canvas until setBoard supplies the board image
+    public BoardCanvas(ImageCache images) {
+        this.images = images;
+        setOpaque(true);
+        setPreferredSize(PLACEHOLDER);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            public void mouseMoved(MouseEvent e) {
+                hover(cardAt((int) (e.getX() / zoom), (int) (e.getY() / zoom)));
+            }
+
+            public void mouseExited(MouseEvent e) {
+                hover(-1);
+            }
+
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                if((e.getModifiersEx() & InputEvent.CTRL_DOWN_MASK) != 0) {
+                    setZoom(zoom * Math.pow(1.1, -e.getPreciseWheelRotation()));
+                } else { // this listener keeps wheel events from the scroll pane, so hand them on
+                    Component scroll = SwingUtilities.getAncestorOfClass(JScrollPane.class, BoardCanvas.this);
+                    if(scroll != null) {
+                        scroll.dispatchEvent(SwingUtilities.convertMouseEvent(BoardCanvas.this, e, scroll));
+                    }
+                }
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+
+    //********************************************************************************
+    //                                  Syncing
+    //********************************************************************************
+
+    // sync: redraws whatever differs between game and the buffer, then repaints only that
+    public void sync(GameManager game) {
+        this.game = game;
+        if(board == null) { // drawn by setBoard
+            return;
+        }
+        if(game.getContext().getBoard().getSets() != sets) {
+            build(game);
+        }
+        for(int i = 0; i < sets.length; i++) {
+            syncCard(i);
+            syncTakes(i);
+        }
+        List<Player> players = game.getPlayers();
+        for(int id = 0; id < players.size(); id++) {
+            syncToken(game, players.get(id));
+        }
+        redraw();
+    }
+
+
+    // build: empty state for a new game, plus the hover grid over its card areas
+    private void build(GameManager game) {
+        this.sets = game.getContext().getBoard().getSets();
+        this.cardPaths = new String[sets.length];
+        this.takesShown = new boolean[sets.length][];
+        for(int i = 0; i < sets.length; i++) {
+            takesShown[i] = new boolean[sets[i].getAllTakes().size()];
+        }
+        int players = game.getPlayers().size();
+        this.tokenPaths = new String[players];
+        this.tokenBounds = new Rectangle[players];
+
+        this.columns = (board.getWidth() + CELL - 1) / CELL;
+        int rows = (board.getHeight() + CELL - 1) / CELL;
+        List<List<Integer>> cells = new ArrayList<>();
+        for(int c = 0; c < columns * rows; c++) {
+            cells.add(new ArrayList<>());
+        }
+        for(int i = 0; i < sets.length; i++) {
+            Rectangle card = cardBounds(i);
+            for(int row = Math.max(0, card.y / CELL); row <= Math.min(rows - 1, (card.y + card.height - 1) / CELL); row++) {
+                for(int column = Math.max(0, card.x / CELL); column <= Math.min(columns - 1, (card.x + card.width - 1) / CELL); column++) {
+                    cells.get(row * columns + column).add(i);
+                }
+            }
+        }
+        this.grid = new int[cells.size()][];
+        for(int c = 0; c < grid.length; c++) {
+            grid[c] = cells.get(c).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        hovered = -1;
+        markDirty(new Rectangle(0, 0, board.getWidth(), board.getHeight()));
+    }
+
+
+    private void syncCard(int i) {
+        Card scene = sets[i].getScene();
+        String path = scene == null ? null : scene.getImg();
+        if(!Objects.equals(path, cardPaths[i])) {
+            if(i == hovered) { // the enlarged card changes too: clear it, and stop hovering if there is no face to show
+                repaintBoard(zoomBounds(i));
+                if(path == null || path.equals(CARD_BACK)) {
+                    hovered = -1;
+                }
+            }
+            cardPaths[i] = path;
+            markDirty(cardBounds(i));
+            if(i == hovered) {
+                repaintBoard(zoomBounds(i));
+            }
+        }
+    }
+
+
+    private void syncTakes(int i) {
+        int left = sets[i].getTakes().size(); // the takes still to shoot are the first ones
+        List<Take> takes = sets[i].getAllTakes();
+        for(int t = 0; t < takesShown[i].length; t++) {
+            if(takesShown[i][t] != t < left) {
+                takesShown[i][t] = t < left;
+                markDirty(bounds(takes.get(t).getArea()));
+            }
+        }
+    }
+
+
+    private void syncToken(GameManager game, Player player) {
+        int id = player.getId();
+        String path = game.getTokenPath(player);
+        int[] position = player.getPosition();
+        Rectangle old = tokenBounds[id];
+        if(old != null && old.x == position[0] && old.y == position[1] && path.equals(tokenPaths[id])) {
+            return;
+        }
+        Dimension token = sizeOf(path);
+        tokenPaths[id] = path;
+        tokenBounds[id] = new Rectangle(position[0], position[1], token.width, token.height);
+        if(old != null) {
+            markDirty(old);
+        }
+        markDirty(tokenBounds[id]);
+    }
+
+
+    // markDirty: marks part of the buffer for the next redraw; overlapping areas are merged
+    private void markDirty(Rectangle area) {
+        Rectangle merged = new Rectangle(area);
+        for(int d = dirty.size() - 1; d >= 0; d--) {
+            if(dirty.get(d).intersects(merged)) {
+                merged.add(dirty.remove(d));
+            }
+        }
+        dirty.add(merged);
+    }
+
+
+    // redraw: repaints every dirty area of the buffer and shows it
+    private void redraw() {
+        Rectangle whole = new Rectangle(0, 0, buffer.getWidth(), buffer.getHeight());
+        for(Rectangle area : dirty) {
+            Rectangle clipped = area.intersection(whole);
+            if(!clipped.isEmpty()) {
+                redraw(clipped);
+            }
+        }
+        dirty.clear();
+    }
+
+
+    // redraw: draws one area of the buffer in board order (shots, cards, tokens)
+    private void redraw(Rectangle area) {
+
+        Graphics2D g = buffer.createGraphics();
+        g.clip(area);
+        g.drawImage(board, 0, 0, null);
+        for(int i = 0; i < sets.length; i++) {
+            List<Take> takes = sets[i].getAllTakes();
+            for(int t = 0; t < takesShown[i].length; t++) {
+                if(takesShown[i][t] && area.intersects(bounds(takes.get(t).getArea()))) {
+                    Area take = takes.get(t).getArea();
+                    draw(g, takes.get(t).getImg(), 0, 0, take.getX(), take.getY());
+                }
+            }
+        }
+        for(int i = 0; i < sets.length; i++) {
+            Rectangle card = cardBounds(i);
+            if(cardPaths[i] != null && area.intersects(card)) {
+                draw(g, cardPaths[i], card.width, card.height, card.x, card.y);
+            }
+        }
+        for(int id = 0; id < tokenPaths.length; id++) {
+            if(tokenBounds[id] != null && area.intersects(tokenBounds[id])) {
+                draw(g, tokenPaths[id], 0, 0, tokenBounds[id].x, tokenBounds[id].y);
+            }
+        }
+        g.dispose();
+        repaintBoard(area);
+    }
+
+
+
+
+    //********************************************************************************
+    //                              Painting & Hover
+    //********************************************************************************
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        if(buffer == null) {
+            graphics.setColor(getBackground());
+            graphics.fillRect(0, 0, getWidth(), getHeight());
+            return;
+        }
+        Graphics2D g = (Graphics2D) graphics.create();
+        if(zoom != 1.0) {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.scale(zoom, zoom);
+        }
+        g.drawImage(buffer, 0, 0, null);
+        if(hovered >= 0) {
+            Rectangle card = cardBounds(hovered);
+            draw(g, cardPaths[hovered], 0, 0, card.x, card.y);
+        }
+        g.dispose();
+    }
+
+
+    // draw: the image at path, at width x height (0 x 0 for natural size), from the atlas if it has it
+    private void draw(Graphics2D g, String path, int width, int height, int x, int y) {
+        SpriteAtlas.Sprite sprite = atlas == null ? null : atlas.get(path, width, height);
+        if(sprite != null) {
+            sprite.draw(g, x, y);
+        } else {
+            g.drawImage(images.get(path, width, height), x, y, null);
+        }
+    }
+
+
+    // sizeOf: natural size of the image at path
+    private Dimension sizeOf(String path) {
+        SpriteAtlas.Sprite sprite = atlas == null ? null : atlas.get(path);
+        if(sprite != null) {
+            return new Dimension(sprite.width(), sprite.height());
+        }
+        BufferedImage image = images.get(path);
+        return new Dimension(image.getWidth(), image.getHeight());
+    }
+
+
+    // cardAt: the set whose card is at board point (x, y) and can be enlarged, or -1
+    private int cardAt(int x, int y) {
+        if(sets == null || board == null || x < 0 || y < 0 || x >= board.getWidth() || y >= board.getHeight()) {
+            return -1;
+        }
+        if(hovered >= 0 && zoomBounds(hovered).contains(x, y)) { // the enlarged card covers its neighbors
+            return hovered;
+        }
+        for(int i : grid[(y / CELL) * columns + x / CELL]) {
+            if(cardBounds(i).contains(x, y) && cardPaths[i] != null && !cardPaths[i].equals(CARD_BACK)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    private void hover(int i) {
+        if(i == hovered) {
+            return;
+        }
+        if(hovered >= 0) {
+            repaintBoard(zoomBounds(hovered));
+        }
+        hovered = i;
+        if(hovered >= 0) {
+            repaintBoard(zoomBounds(hovered));
+        }
+    }
+
+
+    // repaintBoard: schedules a repaint of a rectangle given in board pixels
+    private void repaintBoard(Rectangle area) {
+        repaint((int) Math.floor(area.x * zoom), (int) Math.floor(area.y * zoom),
+                (int) Math.ceil(area.width * zoom) + 2, (int) Math.ceil(area.height * zoom) + 2);
+    }
+
+
+    private Rectangle cardBounds(int i) {
+        return bounds(sets[i].getArea());
+    }
+
+    // zoomBounds: where set i's card is drawn at full size
+    private Rectangle zoomBounds(int i) {
+        Dimension full = sizeOf(cardPaths[i]);
+        Rectangle card = cardBounds(i);
+        return new Rectangle(card.x, card.y, full.width, full.height);
+    }
+
+    private static Rectangle bounds(Area area) {
+        return new Rectangle(area.getX(), area.getY(), area.getW(), area.getH());
+    }
+
+
+
+
+    //********************************************************************************
+    //                            Getters and Setters
+    //********************************************************************************
+    // setZoom: scales the board, keeping it between a quarter and twice its natural size
+    public void setZoom(double zoom) {
+        double clamped = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+        if(clamped == this.zoom) {
+            return;
+        }
+        this.zoom = clamped;
+        resize();
+    }
+
+    // setBoard: installs the board image, on the event thread, and draws the last game synced over it
+    public void setBoard(BufferedImage board) {
+        this.board = board;
+        this.buffer = new BufferedImage(board.getWidth(), board.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = buffer.createGraphics();
+        g.drawImage(board, 0, 0, null);
+        g.dispose();
+        this.sets = null; // the next sync builds the grid and draws everything
+        this.hovered = -1;
+        dirty.clear();
+        if(game != null) {
+            sync(game);
+        }
+        resize();
+    }
+
+    // resize: preferred size at the current zoom, then a full repaint
+    private void resize() {
+        Dimension size = board == null ? PLACEHOLDER : new Dimension(board.getWidth(), board.getHeight());
+        setPreferredSize(new Dimension((int) Math.ceil(size.width * zoom), (int) Math.ceil(size.height * zoom)));
+        revalidate();
+        repaint();
+    }
+
+    // setAtlas: draws from atlas from now on; call on the event thread once it is built. The buffer
+    // already shows the same pixels, so nothing is redrawn
+    public void setAtlas(SpriteAtlas atlas) {
+        this.atlas = atlas;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Purpose: Converts board.xml and cards.xml into the binary format read by BinaryGameData
+ *
+ * Usage: java BoardCompiler [output file] [board.xml cards.xml]
+ * Run it from the src directory after editing either XML file; the default output is
+ * resources/data/deadwood.bin built from the bundled XML.
+ */
+
+// imports
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BoardCompiler {
+    // fields
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final List<Integer> areas = new ArrayList<>();
+    private final Map<List<Integer>, Integer> areaIds = new HashMap<>();
+    private final List<Integer> roles = new ArrayList<>();
+    private final List<Integer> takes = new ArrayList<>();
+    private final List<Integer> upgrades = new ArrayList<>();
+    private final List<Integer> neighbors = new ArrayList<>();
+    private final List<Integer> locations = new ArrayList<>();
+    private final List<Integer> cards = new ArrayList<>();
+    private int boardName;
+    private long sourceHash;
+
+
+    // Main method
+    public static void main(String[] args) throws Exception {
+        Path output = Paths.get(args.length > 0 ? args[0] : "resources/data/deadwood.bin");
+
+        byte[] boardXml;
+        byte[] cardXml;
+        if(args.length >= 3) {
+            try(InputStream board = new FileInputStream(args[1]); InputStream cards = new FileInputStream(args[2])) {
+                boardXml = board.readAllBytes();
+                cardXml = cards.readAllBytes();
+            }
+        } else {
+            try(InputStream board = BoardCompiler.class.getResourceAsStream("/resources/xml/board.xml");
+                InputStream cards = BoardCompiler.class.getResourceAsStream("/resources/xml/cards.xml")) {
+                boardXml = board.readAllBytes();
+                cardXml = cards.readAllBytes();
+            }
+        }
+        GameData data = new GameData(new ByteArrayInputStream(boardXml), new ByteArrayInputStream(cardXml));
+
+        if(output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try(OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+            new BoardCompiler().compile(data, BinaryGameData.sourceHash(boardXml, cardXml), out);
+        }
+        System.out.println("Wrote " + Files.size(output) + " bytes to " + output);
+    }
+
+
+    // compile: encodes the parsed board and cards and writes them in BinaryGameData's layout;
+    // sourceHash is BinaryGameData.sourceHash of the XML they were parsed from
+    public void compile(GameData data, long sourceHash, OutputStream out) throws IOException {
+        this.sourceHash = sourceHash;
+        boardName = string(data.getBoardName());
+
+        for(Location location : data.getLocations()) {
+            addLocation(location);
+        }
+
+        for(Card card : data.getCards()) {
+            cards.add(string(card.getName()));
+            cards.add(card.getNumber());
+            cards.add(string(card.getDescription()));
+            cards.add(card.getBudget());
+            cards.add(string(card.getImg()));
+            addRoles(card.getRoles(), cards);
+        }
+
+        write(new DataOutputStream(out));
+    }
+
+    // addLocation: appends one location record and the neighbors, takes, roles or upgrades it points at
+    private void addLocation(Location location) {
+        int kind = location instanceof Set ? BinaryGameData.SET
+                 : location instanceof CastingOffice ? BinaryGameData.OFFICE
+                 : BinaryGameData.TRAILER;
+
+        locations.add(kind);
+        locations.add(string(location.getName()));
+        locations.add(area(location.getArea()));
+
+        locations.add(neighbors.size());
+        for(String neighbor : location.getTemp()) {
+            neighbors.add(string(neighbor));
+        }
+        locations.add(neighbors.size());
+
+        if(location instanceof Set set) {
+            locations.add(takes.size() / 2);
+            for(Take take : set.getTakes()) {
+                takes.add(take.getNumber());
+                takes.add(area(take.getArea()));
+            }
+            locations.add(takes.size() / 2);
+            addRoles(set.getRoles(), locations);
+        } else if(location instanceof CastingOffice office) {
+            locations.add(0);
+            locations.add(0);
+            locations.add(upgrades.size() / 4);
+            for(Upgrade upgrade : office.getUpgrades()) {
+                upgrades.add(upgrade.getRank());
+                upgrades.add(string(upgrade.getCurrency()));
+                upgrades.add(upgrade.getPrice());
+                upgrades.add(area(upgrade.getArea()));
+            }
+            locations.add(upgrades.size() / 4);
+        } else {
+            for(int i = 0; i < 4; i++) {
+                locations.add(0);
+            }
+        }
+    }
+
+    // addRoles: appends role records and writes their start/end range into the owning record
+    private void addRoles(List<Role> list, List<Integer> owner) {
+        owner.add(roles.size() / 5);
+        for(Role role : list) {
+            roles.add(string(role.getName()));
+            roles.add(role.getRank());
+            roles.add(area(role.getArea()));
+            roles.add(string(role.getFlavorText()));
+            roles.add(role.isOnCard() ? 1 : 0);
+        }
+        owner.add(roles.size() / 5);
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+        out.writeInt(BinaryGameData.MAGIC);
+        out.writeInt(BinaryGameData.VERSION);
+        out.writeLong(sourceHash);
+        out.writeInt(boardName);
+
+        out.writeInt(strings.size());
+        for(String s : strings) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        writeInts(out, areas, 4);
+        writeInts(out, roles, 5);
+        writeInts(out, takes, 2);
+        writeInts(out, upgrades, 4);
+        writeInts(out, neighbors, 1);
+        writeInts(out, locations, 9);
+        writeInts(out, cards, 7);
+        out.flush();
+    }
+
+    private static void writeInts(DataOutputStream out, List<Integer> data, int width) throws IOException {
+        out.writeInt(data.size() / width);
+        for(int value : data) {
+            out.writeInt(value);
+        }
+    }
+
+    // string: index of s in the string table, adding it on first use
+    private int string(String s) {
+        return stringIds.computeIfAbsent(s, key -> {
+            strings.add(key);
+            return strings.size() - 1;
+        });
+    }
+
+    // area: index of an area with the same bounds, adding it on first use
+    private int area(Area a) {
+        List<Integer> key = List.of(a.getX(), a.getY(), a.getH(), a.getW());
+        return areaIds.computeIfAbsent(key, k -> {
+            areas.addAll(k);
+            return areas.size() / 4 - 1;
+        });
+    }
+}
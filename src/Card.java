@@ -1,7 +1,8 @@
 // imports
+import java.util.ArrayList;
 import java.util.List;
 
-public class Card {
+public class Card implements Journal.Target {
     // fields
     private String name;
     private int number;
@@ -9,7 +10,14 @@ public class Card {
     private int budget;
     private List<Role> roles;
     private String img;
+    private final String front; // face-up image, shown again if the card is unwrapped
     private boolean wrap;
+    private final int[] rankOrder; // role indexes by descending rank, ties in card order
+    private int id; // position in the template's card list, the same in every game
+    private Journal journal;
+
+    // journaled fields
+    private static final int WRAP = 0;
 
 
     // constructor
@@ -20,11 +28,73 @@ public class Card {
         this.budget = b;
         this.roles = r;
         this.img = img;
+        this.front = img;
         setWrap(w);
+        this.rankOrder = sortByRank(r);
+    }
+
+
+    // Card: copies a card definition, with its own roles, for a new game
+    public Card(Card other) {
+        this(other.name, other.number, other.description, other.budget, copyRoles(other.roles), other.front, other.wrap);
+        this.id = other.id;
+    }
+
+    // copyStateFrom: copies the wrap flag and taken roles of the same card in another game
+    public void copyStateFrom(Card other) {
+        setWrap(other.wrap);
+        for(int i = 0; i < roles.size(); i++) {
+            roles.get(i).setTaken(other.roles.get(i).isTaken());
+        }
+    }
+
+    // sortByRank: stable sort of role indexes by descending rank
+    private static int[] sortByRank(List<Role> roles) {
+        int[] order = new int[roles.size()];
+        for(int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        for(int i = 1; i < order.length; i++) { // insertion sort, cards hold at most a handful of roles
+            int index = order[i];
+            int j = i - 1;
+            while(j >= 0 && roles.get(order[j]).getRank() < roles.get(index).getRank()) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = index;
+        }
+        return order;
+    }
+
+    private static List<Role> copyRoles(List<Role> roles) {
+        List<Role> copies = new ArrayList<>(roles.size());
+        for(Role role : roles) {
+            copies.add(new Role(role));
+        }
+        return copies;
     }
 
 
     // getters and setters
+    public int getId(){
+        return id;
+    }
+    public void setId(int id){
+        this.id = id;
+    }
+
+    public String getName(){
+        return name;
+    }
+
+    public int getNumber(){
+        return number;
+    }
+
+    public String getDescription(){
+        return description;
+    }
+
     public int getBudget(){
         return budget;
     }
@@ -33,6 +103,11 @@ public class Card {
         return roles;
     }
 
+    // getRankOrder: role indexes from highest to lowest rank; shared, so callers must not modify it
+    public int[] getRankOrder(){
+        return rankOrder;
+    }
+
     public String getImg() {
         return img;
     }
@@ -41,9 +116,41 @@ public class Card {
         return wrap;
     }
     public void setWrap(boolean w){
+        if(journal != null) journal.record(this, WRAP, this.wrap ? 1 : 0, w ? 1 : 0);
         this.wrap = w;
-        if(w){
-            this.img = "/resources/images/cards/CardBack.jpg";
+        this.img = w ? "/resources/images/cards/CardBack.jpg" : front;
+    }
+
+    // setJournal: journals this card and its roles
+    public void setJournal(Journal journal){
+        this.journal = journal;
+        for(Role role : roles) {
+            role.setJournal(journal);
+        }
+    }
+
+    // restore: puts back a journaled field without journaling it again
+    @Override
+    public void restore(int field, long value, Object ref){
+        if(field != WRAP) {
+            throw new IllegalArgumentException("Unknown card field " + field);
+        }
+        this.wrap = value == 1;
+        this.img = wrap ? "/resources/images/cards/CardBack.jpg" : front;
+    }
+
+    // hashKey: Zobrist key of the wrap flag; the card art follows from it
+    @Override
+    public long hashKey(int field, long value, Object ref){
+        return Zobrist.key(Zobrist.CARD, field, id, value);
+    }
+
+    // stateHash: the wrap flag and this card's roles
+    public long stateHash(){
+        long hash = hashKey(WRAP, wrap ? 1 : 0, null);
+        for(Role role : roles) {
+            hash ^= role.stateHash();
         }
+        return hash;
     }
 }
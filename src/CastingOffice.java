@@ -5,11 +5,25 @@ import java.util.List;
 public class CastingOffice extends Location {
     // fields
     private final List<Upgrade> upgrades;
+    private final Upgrade[][] byRank; // [rank][currency code]
 
     // constructor
     public CastingOffice(String name, List<String> neighbors, Area area, List<Upgrade> upgrades) {
         super(name, neighbors, area);
         this.upgrades = upgrades;
+        int maxRank = 0;
+        for(Upgrade upgrade : upgrades) {
+            maxRank = Math.max(maxRank, upgrade.getRank());
+        }
+        this.byRank = new Upgrade[maxRank + 1][Currency.values().length];
+        for(Upgrade upgrade : upgrades) {
+            byRank[upgrade.getRank()][upgrade.getCurrencyType().code()] = upgrade;
+        }
+    }
+
+    @Override
+    public CastingOffice copy() {
+        return new CastingOffice(getName(), getTemp(), getArea(), upgrades);
     }
 
     // getters and setters
@@ -17,4 +31,9 @@ public class CastingOffice extends Location {
         return this.upgrades;
     }
 
+    // getUpgrade: the option to reach rank paying in currency, or null if the office has none
+    public Upgrade getUpgrade(int rank, Currency currency){
+        return rank >= 0 && rank < byRank.length ? byRank[rank][currency.code()] : null;
+    }
+
 }
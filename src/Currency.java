@@ -0,0 +1,55 @@
+// imports
+
+// Currency: what an upgrade is paid in; code() is the value packed into Moves
+public enum Currency {
+    DOLLARS("dollars"),
+    CREDITS("credits");
+
+    // fields
+    private static final Currency[] BY_CODE = values();
+    private final String label;
+
+    // constructor
+    Currency(String label) {
+        this.label = label;
+    }
+
+
+    // of: the currency with the given name ("dollars" or "credits"), as in the board data and the GUI
+    public static Currency of(String name) {
+        return switch(name) {
+            case "dollars" -> DOLLARS;
+            case "credits" -> CREDITS;
+            default -> throw new IllegalArgumentException("Unknown currency: " + name);
+        };
+    }
+
+    // of: the currency packed into an encoded move
+    public static Currency of(int code) {
+        return BY_CODE[code];
+    }
+
+
+    // getters and setters
+    public String getName() {
+        return label;
+    }
+
+    public int code() {
+        return ordinal();
+    }
+
+    // funds: how much of this currency player has
+    public int funds(Player player) {
+        return this == DOLLARS ? player.getDollars() : player.getCredits();
+    }
+
+    // pay: takes amount of this currency from player
+    public void pay(Player player, int amount) {
+        if(this == DOLLARS) {
+            player.setDollars(player.getDollars() - amount);
+        } else {
+            player.setCredits(player.getCredits() - amount);
+        }
+    }
+}
@@ -9,9 +9,11 @@ import javax.swing.*;
 import javax.swing.Timer;
 import java.awt.*;
 import java.awt.event.*;
-import java.net.URL;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class Deadwood {
@@ -19,14 +21,34 @@ public class Deadwood {
     private GameManager manager;
     private JFrame frame;
     private JPanel panel, buttonPanel, statsPanel,messagePanel, btn_move, btn_role, btn_rehearse, btn_act, btn_upgrade, btn_end, standingsPanel;
-    private JLayeredPane layeredPane;
     private JLabel playerName, playerRank, playerDollars, playerCredits, playerChips, daysRemain;
-    private final Map<Take, JLabel> takeLabels = new HashMap<>();
+    private BoardCanvas boardCanvas; // the board with its cards, shots and tokens
+
+    // computer players; their playouts run on botPool so the EDT never waits on them
+    private final Map<Player, MonteCarloBot> bots = new HashMap<>();
+    private final SplittableRandom botSeeds = new SplittableRandom();
+    private ForkJoinPool botPool;
+    private final TranspositionTable botTable = new TranspositionTable(1 << 16); // shared by every bot
+    private final ActResult actResult = new ActResult(); // reused by every act
+    private final AssetPreloader assets; // loads the board art in the background from the moment main runs
+    private final ImageCache images; // decoded and scaled board art
+    private JProgressBar loadingBar;
+    private boolean botThinking;
+    private boolean assetsReady; // set once the atlas has loaded or failed; play and drawing wait for it
+    private static final int BOT_MOVE_DELAY = 600; // ms between bot moves so they can be followed
 
 
     // Main method
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> new Deadwood().GUI());
+        AssetPreloader assets = AssetPreloader.start(new ImageCache(64L << 20)); // up to 64 MB of images
+        SwingUtilities.invokeLater(() -> new Deadwood(assets).GUI());
+    }
+
+
+    // Constructor
+    private Deadwood(AssetPreloader assets) {
+        this.assets = assets;
+        this.images = assets.getImages();
     }
 
 
@@ -37,12 +59,22 @@ public class Deadwood {
 
         selectPlayers();
         renamePlayers();
+        selectBots();
 
         currentPlayerInfo();
 
-        showCards();
-        showTakes();
-        showTokens();
+        // the buttons, bots and showBoard all wait for the atlas, so nothing is decoded on the event thread
+        // while it loads; once it is in, draw the game so far and let the first player move
+        assets.getAtlas().whenCompleteAsync((atlas, error) -> {
+            assetsReady = true;
+            if(atlas != null) {
+                boardCanvas.setAtlas(atlas);
+            } else { // the board still draws, loading each image as it is needed
+                displayMessage("Could not preload the card images", Color.RED, 185);
+            }
+            showBoard();
+            currentPlayerInfo();
+        }, SwingUtilities::invokeLater);
 
         // display quit confirmation dialog
         frame.addWindowListener(new WindowAdapter() {
@@ -180,19 +212,20 @@ public class Deadwood {
         JPanel standingsPanel = new JPanel();
         standingsPanel.setBorder(BorderFactory.createLineBorder(Color.BLACK));
 
-        Map<String, Integer> playerScores = manager.scoreGame();
-
-        // sort entries by score in descending order
-        List<Map.Entry<String, Integer>> sortedScores = playerScores.entrySet().stream()
-                .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-                .toList();
+        Scoreboard scoreboard = manager.getScoreboard(); // already in order, nothing to sort
 
         // create a string to display the scores
         StringBuilder html = new StringBuilder("<html><center>");
         html.append("<center><h2><u>Standings</u></h2></center>");
         html.append("<br>");
-        for (Map.Entry<String, Integer> entry : sortedScores) {
-            html.append(entry.getKey()).append(": ").append(entry.getValue()).append("<br><br>");
+        for (int place = 0; place < scoreboard.size(); place++) {
+            int id = scoreboard.getPlayerAt(place);
+            int delta = scoreboard.getDelta(id); // gained this turn
+            html.append(manager.getPlayers().get(id).getName()).append(": ").append(scoreboard.getScore(id));
+            if (delta != 0) {
+                html.append(delta > 0 ? " (+" : " (").append(delta).append(")");
+            }
+            html.append("<br><br>");
         }
         html.append("</center></html>");
         JLabel scoreLabel = new JLabel(html.toString());
@@ -243,19 +276,47 @@ public class Deadwood {
 
 
     private void setupBoard() {
-        layeredPane = new JLayeredPane(); // holds the board, cards, tokens, etc.
+        boardCanvas = new BoardCanvas(images); // draws the board, cards, tokens, etc.; blank until the board is decoded
+
+        // the window and the setup dialogs don't wait for the board image
+        assets.getBoard().whenCompleteAsync((board, error) -> {
+            if(board != null) {
+                boardCanvas.setBoard(board);
+            } else {
+                JOptionPane.showMessageDialog(frame, "Could not load the board image:\n" + causeOf(error), "Deadwood", JOptionPane.ERROR_MESSAGE);
+            }
+        }, SwingUtilities::invokeLater);
 
-        ImageIcon board = getImage("/resources/images/board.jpg");
-        layeredPane.setPreferredSize(new Dimension(board.getIconWidth(), board.getIconHeight()));
+        JScrollPane scrollPane = new JScrollPane(boardCanvas);
 
-        JLabel boardLabel = new JLabel(board);
-        boardLabel.setBounds(0, 0, board.getIconWidth(), board.getIconHeight());
+        panel.add(scrollPane, BorderLayout.CENTER);
 
-        layeredPane.add(boardLabel, Integer.valueOf(0));
+        setupLoadingBar();
+    }
 
-        JScrollPane scrollPane = new JScrollPane(layeredPane);
 
-        panel.add(scrollPane, BorderLayout.CENTER);
+    // Show how far the preloader has got under the board until it is done
+    private void setupLoadingBar() {
+        if(assets.isDone()) {
+            return;
+        }
+        loadingBar = new JProgressBar();
+        loadingBar.setStringPainted(true);
+        panel.add(loadingBar, BorderLayout.SOUTH);
+
+        Timer timer = new Timer(100, null);
+        timer.addActionListener(e -> {
+            loadingBar.setMaximum(assets.getTotal());
+            loadingBar.setValue(assets.getLoaded());
+            loadingBar.setString("Loading images " + assets.getLoaded() + " / " + assets.getTotal());
+            if(assets.isDone()) {
+                timer.stop();
+                panel.remove(loadingBar);
+                panel.revalidate();
+                panel.repaint();
+            }
+        });
+        timer.start();
     }
 
 
@@ -272,7 +333,12 @@ public class Deadwood {
 
         if (option == 0) { // 'Start Game' selected
             Integer input = (Integer) numPlayers.getSelectedItem(); // get input
-            this.manager = new GameManager(Objects.requireNonNull(input)); // Create a new game manager with the selected number of players
+            try {
+                this.manager = new GameManager(Objects.requireNonNull(input)); // Create a new game manager with the selected number of players
+            } catch(IllegalStateException e) { // the board or cards could not be loaded
+                JOptionPane.showMessageDialog(frame, e.getMessage() + "\n" + e.getCause(), "Game Setup", JOptionPane.ERROR_MESSAGE);
+                System.exit(1);
+            }
         }
 
         else { // 'Cancel' selected or dialog closed
@@ -299,6 +365,39 @@ public class Deadwood {
 
 
 
+    // Ask how many of the players are computer opponents; bots take the last seats
+    private void selectBots() {
+        int numPlayers = manager.getPlayers().size();
+        Integer[] choices = new Integer[numPlayers + 1];
+        for(int i = 0; i <= numPlayers; i++) {
+            choices[i] = i;
+        }
+        JComboBox<Integer> numBots = new JComboBox<>(choices);
+
+        Object[] message = {"How many players should be computer opponents?", numBots};
+        JOptionPane.showMessageDialog(frame, message, "Computer Opponents", JOptionPane.QUESTION_MESSAGE);
+
+        int count = (Integer) Objects.requireNonNull(numBots.getSelectedItem());
+        if(count == 0) {
+            return;
+        }
+
+        // playout settings can be tuned with -Ddeadwood.bot.rollouts, .think (ms) and .threads
+        int rollouts = Integer.getInteger("deadwood.bot.rollouts", 400);
+        long thinkMillis = Long.getLong("deadwood.bot.think", 1500L);
+        int threads = Integer.getInteger("deadwood.bot.threads", Runtime.getRuntime().availableProcessors());
+        botPool = new ForkJoinPool(threads);
+
+        List<Player> players = manager.getPlayers();
+        for(Player player : players.subList(numPlayers - count, numPlayers)) {
+            manager.renamePlayer(player, player.getName() + " (Bot)");
+            bots.put(player, new MonteCarloBot(rollouts, thinkMillis, botPool, botSeeds.nextLong(), botTable));
+        }
+    }
+
+
+
+
     //********************************************************************************
     //                           Update & Display Methods
     //********************************************************************************
@@ -327,19 +426,24 @@ public class Deadwood {
         daysRemain.setForeground(Color.GRAY);
 
         showActiveButtons();
+
+        if(assetsReady && isBotTurn()) {
+            SwingUtilities.invokeLater(this::playBotMove); // after the current action has finished updating the game
+        }
     }
 
 
     private void showActiveButtons() { // Show the buttons that the player can use
         var availableActions = manager.getAvailableActions(); // Get the available actions for the player
+        boolean human = assetsReady && !isBotTurn(); // buttons stay disabled while loading or a bot is playing
 
         // Set the style of the buttons based on the available actions
-        setButtonStyle(btn_move, availableActions.contains("Move"));
-        setButtonStyle(btn_role, availableActions.contains("Take Role") && !manager.getAvailableRoles().isEmpty());
-        setButtonStyle(btn_rehearse, availableActions.contains("Rehearse"));
-        setButtonStyle(btn_act, availableActions.contains("Act"));
-        setButtonStyle(btn_upgrade, availableActions.contains("Upgrade"));
-        setButtonStyle(btn_end, availableActions.contains("End Turn"));
+        setButtonStyle(btn_move, human && availableActions.contains("Move"));
+        setButtonStyle(btn_role, human && availableActions.contains("Take Role") && !manager.getAvailableRoles().isEmpty());
+        setButtonStyle(btn_rehearse, human && availableActions.contains("Rehearse"));
+        setButtonStyle(btn_act, human && availableActions.contains("Act"));
+        setButtonStyle(btn_upgrade, human && availableActions.contains("Upgrade"));
+        setButtonStyle(btn_end, human && availableActions.contains("End Turn"));
     }
 
 
@@ -357,101 +461,11 @@ public class Deadwood {
     }
 
 
-    private void showCards() {
-        // Remove all components in layer 2
-        Component[] components = layeredPane.getComponentsInLayer(2);
-        for (Component c : components) {
-            layeredPane.remove(c);
+    // Bring the cards, shot markers and tokens on the board up to date with the game
+    private void showBoard() {
+        if(assetsReady) { // the canvas catches up on everything when the atlas arrives
+            boardCanvas.sync(manager);
         }
-
-        layeredPane.revalidate();
-        layeredPane.repaint();
-
-        manager.getCards().forEach((card, area) -> {
-            String path = card.getImg();
-
-            int x = area.get(0);
-            int y = area.get(1);
-            int w = area.get(2);
-            int h = area.get(3);
-
-            ImageIcon cardImage = getImage(path);
-            ImageIcon scaledImage = new ImageIcon(cardImage.getImage().getScaledInstance(w, h, Image.SCALE_SMOOTH));
-            JLabel cardLabel = new JLabel(scaledImage);
-            cardLabel.setBounds(x, y, w, h);
-
-            if(!Objects.equals(path, "/resources/images/cards/CardBack.jpg")) { // If the card is not the card back
-                cardLabel.addMouseListener(new MouseAdapter() { // Add a mouse listener to the card
-
-                    // Enlarge the card on mouse hover
-                    public void mouseEntered(MouseEvent e) {
-                        cardLabel.setBounds(x, y, cardImage.getIconWidth(), cardImage.getIconHeight());
-                        cardLabel.setIcon(cardImage);
-                        layeredPane.setLayer(cardLabel, 7);
-                    }
-
-                    // Return the card to its original size on mouse exit
-                    public void mouseExited(MouseEvent e) {
-                        cardLabel.setBounds(x, y, w, h);
-                        cardLabel.setIcon(scaledImage);
-                        layeredPane.setLayer(cardLabel, 2);
-                    }
-                });
-            }
-
-            layeredPane.add(cardLabel, Integer.valueOf(2));
-        });
-    }
-
-
-    private void showTakes() {
-        manager.getTakes().forEach((take, area) -> {
-            String path = take.getImg();
-
-            int x = area.get(0);
-            int y = area.get(1);
-            int w = area.get(2);
-            int h = area.get(3);
-
-            ImageIcon takeImage = getImage(path);
-            JLabel takeLabel = new JLabel(takeImage);
-            takeLabel.setBounds(x, y, w, h);
-            layeredPane.add(takeLabel, Integer.valueOf(1));
-
-            takeLabels.put(take, takeLabel);
-        });
-    }
-
-
-    private void clearTakes() {
-        for (JLabel takeLabel : takeLabels.values()) {
-            layeredPane.remove(takeLabel);
-        }
-        takeLabels.clear();
-        layeredPane.repaint();
-    }
-
-
-    // Display player tokens on the board
-    private void showTokens() {
-        // Remove all components in layer 3
-        Component[] components = layeredPane.getComponentsInLayer(3);
-        for (Component c : components) {
-            layeredPane.remove(c);
-        }
-
-        layeredPane.revalidate();
-        layeredPane.repaint();
-
-        manager.getTokens().forEach((path, position) -> {
-            int x = position[0];
-            int y = position[1];
-
-            ImageIcon token = getImage(path);
-            JLabel tokenLabel = new JLabel(token);
-            tokenLabel.setBounds(x, y, token.getIconWidth(), token.getIconHeight());
-            layeredPane.add(tokenLabel, Integer.valueOf(3));
-        });
     }
 
 
@@ -467,11 +481,7 @@ public class Deadwood {
             for(String location : manager.getAvailableLocations()) {
                 JMenuItem locationItem = new JMenuItem(location);
 
-                locationItem.addActionListener(a -> {
-                    manager.move(location);
-                    showTokens();
-                    currentPlayerInfo();
-                });
+                locationItem.addActionListener(a -> performMove(location));
 
                 locationMenu.add(locationItem);
             }
@@ -488,11 +498,7 @@ public class Deadwood {
             for(Map.Entry<String, String> role : manager.getAvailableRoles().entrySet()) {
                 JMenuItem roleItem = new JMenuItem(role.getKey() + role.getValue());
 
-                roleItem.addActionListener(a -> {
-                    manager.takeRole(role.getKey());
-                    showTokens();
-                    currentPlayerInfo();
-                });
+                roleItem.addActionListener(a -> performTakeRole(role.getKey()));
 
                 roleMenu.add(roleItem);
             }
@@ -503,83 +509,111 @@ public class Deadwood {
 
 
     private ActionListener rehearseListener() { // Rehearse button action listener
-        return e -> {
-          manager.rehearse();
-          displayMessage("+1 Practice Chips", Color.GREEN, 150);
-          currentPlayerInfo();
-        };
+        return e -> performRehearse();
     }
 
 
     private ActionListener actListener() { // Act button action listener
-        return e -> {
-            int[] actResult = manager.act(); // get hacky act results
+        return e -> performAct();
+    }
 
-            // display rolled number
-            int diceResult = actResult[1];
-            displayMessage("You rolled a: " + diceResult, Color.BLACK, 0);
 
-            // display success or failure message
-            String message = actResult[0] == 1 ? "ACT SUCCESS!" : "ACT FAILED!";
-            Color color = actResult[0] == 1 ? Color.GREEN : Color.RED;
-            displayMessage(message, color, 35);
+    private void performMove(String location) {
+        manager.move(location);
+        showBoard();
+        currentPlayerInfo();
+    }
 
-            // display bonus message
-            if(actResult[2] == 1){
-                displayMessage("You got a bonus!", Color.BLUE, 70);
-            }
 
-            if(actResult[0] == 1){ // if the act was successful
-                clearTakes();
-                showTakes();
-            }
+    private void performTakeRole(String role) {
+        manager.takeRole(role);
+        showBoard();
+        currentPlayerInfo();
+    }
 
-            if(actResult[3] == 1){ // if the day is over
-                JOptionPane endDayMessage = new JOptionPane("Scenes are wrapped and the day has ended!", JOptionPane.INFORMATION_MESSAGE);
-                JDialog dialog = endDayMessage.createDialog(layeredPane, "End of Day");
-                dialog.setVisible(true);
 
-                manager.endTurn();
-                currentPlayerInfo();
-                showTokens();
-            }
+    private void performRehearse() {
+        manager.rehearse();
+        displayMessage("+1 Practice Chips", Color.GREEN, 150);
+        currentPlayerInfo();
+    }
 
-            if(actResult[4] == 1){ // if the game is over
-                Map<String, Integer> playerScores = manager.scoreGame();
 
-                // sort entries by score in descending order
-                List<Map.Entry<String, Integer>> sortedScores = playerScores.entrySet().stream()
-                        .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-                        .toList();
+    private void performUpgrade(Upgrade upgrade, Currency currency) {
+        manager.upgrade(upgrade, currency);
+        currentPlayerInfo();
+        showBoard();
+    }
 
-                StringBuilder scores = new StringBuilder();
 
-                // get winner(s)
-                Iterator<Map.Entry<String, Integer>> iterator = sortedScores.iterator();
-                Map.Entry<String, Integer> firstEntry = iterator.next();
-                String currWinner = firstEntry.getKey();
-                int currScore = firstEntry.getValue();
-                boolean tie = iterator.hasNext() && iterator.next().getValue() == currScore;
+    private void performEndTurn() {
+        manager.endTurn();
+        currentPlayerInfo();
+        showBoard();
+    }
 
-                scores.append(tie ? "It's a tie!\n\n" : currWinner + " wins!\n\n");
-                
-                // get scores
-                for(Map.Entry<String, Integer> entry : sortedScores){
-                    scores.append(entry.getKey()).append(":   ").append(entry.getValue()).append(" points\n\n");
-                }
 
-                // display the scores
-                JOptionPane endGameMessage = new JOptionPane(scores, JOptionPane.INFORMATION_MESSAGE);
-                JDialog dialog = endGameMessage.createDialog(layeredPane, "Game Over: Final Scores");
-                dialog.setVisible(true);
+    private void performAct() {
+        ActResult actResult = manager.act(this.actResult);
 
-                System.exit(0);
-            }
+        // display rolled number
+        int diceResult = actResult.getRoll();
+        displayMessage("You rolled a: " + diceResult, Color.BLACK, 0);
 
+        // display success or failure message
+        String message = actResult.isSuccess() ? "ACT SUCCESS!" : "ACT FAILED!";
+        Color color = actResult.isSuccess() ? Color.GREEN : Color.RED;
+        displayMessage(message, color, 35);
+
+        // display bonus message
+        if(actResult.isBonusRolled()){
+            displayMessage("You got a bonus!", Color.BLUE, 70);
+        }
+
+        if(actResult.isDayEnded()){ // if the day is over
+            JOptionPane endDayMessage = new JOptionPane("Scenes are wrapped and the day has ended!", JOptionPane.INFORMATION_MESSAGE);
+            JDialog dialog = endDayMessage.createDialog(boardCanvas, "End of Day");
+            dialog.setVisible(true);
+
+            manager.endTurn();
             currentPlayerInfo();
-            showCards();
-            showTokens();
-        };
+            showBoard();
+        }
+
+        if(actResult.isGameOver()){ // if the game is over
+            Map<String, Integer> playerScores = manager.scoreGame();
+
+            // sort entries by score in descending order
+            List<Map.Entry<String, Integer>> sortedScores = playerScores.entrySet().stream()
+                    .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
+                    .toList();
+
+            StringBuilder scores = new StringBuilder();
+
+            // get winner(s)
+            Iterator<Map.Entry<String, Integer>> iterator = sortedScores.iterator();
+            Map.Entry<String, Integer> firstEntry = iterator.next();
+            String currWinner = firstEntry.getKey();
+            int currScore = firstEntry.getValue();
+            boolean tie = iterator.hasNext() && iterator.next().getValue() == currScore;
+
+            scores.append(tie ? "It's a tie!\n\n" : currWinner + " wins!\n\n");
+            
+            // get scores
+            for(Map.Entry<String, Integer> entry : sortedScores){
+                scores.append(entry.getKey()).append(":   ").append(entry.getValue()).append(" points\n\n");
+            }
+
+            // display the scores
+            JOptionPane endGameMessage = new JOptionPane(scores, JOptionPane.INFORMATION_MESSAGE);
+            JDialog dialog = endGameMessage.createDialog(boardCanvas, "Game Over: Final Scores");
+            dialog.setVisible(true);
+
+            System.exit(0);
+        }
+
+        currentPlayerInfo();
+        showBoard();
     }
 
 
@@ -664,22 +698,15 @@ public class Deadwood {
                 String currency = parts[1]; // Get the selected currency
 
                 // Get the selected upgrade
-                Upgrade selectedUpgrade = null;
-                for (Upgrade upgrade : ((CastingOffice) manager.getCurrentPlayer().getLocation()).getUpgrades()) {
-                    if (upgrade.getRank() == Integer.parseInt(rankStr) && upgrade.getCurrency().equals(currency)) {
-                        selectedUpgrade = upgrade;
-                        break;
-                    }
-                }
+                CastingOffice office = (CastingOffice) manager.getCurrentPlayer().getLocation();
+                Upgrade selectedUpgrade = office.getUpgrade(Integer.parseInt(rankStr), Currency.of(currency));
 
                 // Perform the upgrade
                 if (selectedUpgrade != null) {
-                    manager.upgrade(selectedUpgrade, currency);
                     dialog.dispose();
-                    currentPlayerInfo();
-                    showTokens();
+                    performUpgrade(selectedUpgrade, selectedUpgrade.getCurrencyType());
                 } else { // If the upgrade is invalid
-                    JOptionPane.showMessageDialog(layeredPane, "Please select an upgrade");
+                    JOptionPane.showMessageDialog(boardCanvas, "Please select an upgrade");
                 }
             });
 
@@ -690,18 +717,73 @@ public class Deadwood {
             dialog.setTitle("   Casting Office: Pay dollars OR credits to upgrade.");
             dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
             dialog.setSize(400, 400);
-            dialog.setLocationRelativeTo(layeredPane);
+            dialog.setLocationRelativeTo(boardCanvas);
             dialog.setVisible(true);
         };
     }
 
 
     private ActionListener endTurnListener() { // End Turn button action listener
-        return e -> {
-            manager.endTurn();
-            currentPlayerInfo();
-            showTokens();
-        };
+        return e -> performEndTurn();
+    }
+
+
+
+
+    //********************************************************************************
+    //                               Computer Players
+    //********************************************************************************
+    private boolean isBotTurn() {
+        return bots.containsKey(manager.getCurrentPlayer());
+    }
+
+
+    // Let the current bot pick its next move on a copy of the game, off the EDT, then play it here
+    private void playBotMove() {
+        if(botThinking || !assetsReady || !isBotTurn()) {
+            return;
+        }
+        botThinking = true;
+
+        MonteCarloBot bot = bots.get(manager.getCurrentPlayer());
+        GameManager snapshot = manager.copy(botSeeds.nextLong()); // the bot never touches the live game
+        displayMessage(manager.getCurrentPlayer().getName() + " is thinking...", Color.GRAY, 105);
+
+        new SwingWorker<Integer, Void>() {
+            protected Integer doInBackground() {
+                int[] moves = Simulation.legalMoves(snapshot);
+                return bot.choose(snapshot, moves, moves.length);
+            }
+
+            protected void done() {
+                try {
+                    int move = get();
+                    Timer delay = new Timer(BOT_MOVE_DELAY, e -> {
+                        botThinking = false;
+                        performBotMove(move);
+                    });
+                    delay.setRepeats(false);
+                    delay.start();
+                } catch (InterruptedException | ExecutionException ex) {
+                    botThinking = false;
+                    displayMessage(manager.getCurrentPlayer().getName() + " could not choose a move", Color.RED, 140);
+                    performEndTurn();
+                }
+            }
+        }.execute();
+    }
+
+
+    // Play a bot's move through the same paths as the buttons
+    private void performBotMove(int move) {
+        switch(Moves.action(move)) {
+            case Moves.MOVE -> performMove(manager.locationOf(move).getName());
+            case Moves.TAKE_ROLE -> performTakeRole(manager.roleOf(move).getName());
+            case Moves.REHEARSE -> performRehearse();
+            case Moves.ACT -> performAct();
+            case Moves.UPGRADE -> performUpgrade(manager.upgradeOf(move), Moves.currency(move));
+            default -> performEndTurn();
+        }
     }
 
 
@@ -710,11 +792,21 @@ public class Deadwood {
     //********************************************************************************
     //                               Helper Methods
     //********************************************************************************
+    // getImage: the image at path, decoded once and then served from the cache
     private ImageIcon getImage(String path) throws NullPointerException {
-        URL url = getClass().getResource(path);
-        ImageIcon image = new ImageIcon(Objects.requireNonNull(url));
-        image.setImage(image.getImage().getScaledInstance(image.getIconWidth(), image.getIconHeight(), Image.SCALE_DEFAULT));
-        return image;
+        return new ImageIcon(images.get(path));
+    }
+
+
+    // getImage: the image at path scaled to w x h, scaled once and then served from the cache
+    private ImageIcon getImage(String path, int w, int h) throws NullPointerException {
+        return new ImageIcon(images.get(path, w, h));
+    }
+
+
+    // causeOf: the exception behind a failed background task
+    private static Throwable causeOf(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
     }
 
 
@@ -748,7 +840,7 @@ public class Deadwood {
         String newName;
         do {
             JOptionPane optionPane = new JOptionPane(inputs, JOptionPane.PLAIN_MESSAGE, JOptionPane.DEFAULT_OPTION);
-            JDialog prompt = optionPane.createDialog(layeredPane, "Rename Player");
+            JDialog prompt = optionPane.createDialog(boardCanvas, "Rename Player");
 
             // Use a timer to request focus after the dialog is visible
             new Timer(100, e -> input.requestFocusInWindow()).start(); // Request focus on the text field
@@ -1,39 +1,106 @@
 // imports
 import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
 
-public class Deck {
+public class Deck implements Journal.Target {
     // fields
-    private static Deck deck;
     private final List<Card> cards;
+    private final Card[] byId; // cards indexed by id
     private int nextCard;
+    private Journal journal;
 
-    // constructor
-    private Deck(List<Card> c){
+    // journaled fields
+    private static final int NEXT_CARD = 0;
+
+    // constructors
+    public Deck(List<Card> c){
+        this(c, new SplittableRandom());
+    }
+
+    public Deck(List<Card> c, SplittableRandom rand){
         this.cards = c;
+        this.byId = new Card[c.size()];
+        for(Card card : c) {
+            byId[card.getId()] = card;
+        }
         this.nextCard = 0;
-        Collections.shuffle(cards);
+        shuffle(rand);
+    }
+
+    // shuffle: Fisher-Yates shuffle, the same walk as Collections.shuffle but driven by the game's own RNG
+    private void shuffle(SplittableRandom rand) {
+        for(int i = cards.size(); i > 1; i--) {
+            Collections.swap(cards, i - 1, rand.nextInt(i));
+        }
     }
 
-    // getters and setters
-    public static void initializeDeck(List<Card> c){
-        if(deck != null){
-            throw new IllegalStateException("Deck has already been initialized");
+    // copyFrom: puts this deck in the same order and position as another game's deck; cardsById are this game's cards
+    public void copyFrom(Deck other, Card[] cardsById) {
+        for(int i = 0; i < cards.size(); i++) {
+            cards.set(i, cardsById[other.cards.get(i).getId()]);
         }
-        deck = new Deck(c);
+        this.nextCard = other.nextCard;
+    }
+
+    public List<Card> getCards() {
+        return cards;
+    }
+
+    public Card getCard(int id) {
+        return byId[id];
+    }
+
+    // setCard: puts the card with the given id at position in the deck order
+    public void setCard(int position, int id) {
+        cards.set(position, byId[id]);
+    }
+
+    public int getNextCard() {
+        return nextCard;
+    }
+
+    public void setNextCard(int n) {
+        if(journal != null) journal.record(this, NEXT_CARD, nextCard, n);
+        this.nextCard = n;
+    }
+
+    // setJournal: journals the deck position and every card in it
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+        for(Card card : cards) {
+            card.setJournal(journal);
+        }
+    }
+
+    // restore: puts back a journaled field without journaling it again
+    @Override
+    public void restore(int field, long value, Object ref) {
+        if(field != NEXT_CARD) {
+            throw new IllegalArgumentException("Unknown deck field " + field);
+        }
+        this.nextCard = (int) value;
+    }
+
+    @Override
+    public long hashKey(int field, long value, Object ref) {
+        return Zobrist.key(Zobrist.DECK, field, 0, value);
     }
 
-    public static Deck getInstance(){
-        if(deck == null){
-            throw new IllegalStateException("Deck has not been initialized");
+    // stateHash: the deck position and every card
+    public long stateHash() {
+        long hash = hashKey(NEXT_CARD, nextCard, null);
+        for(Card card : cards) {
+            hash ^= card.stateHash();
         }
-        return deck;
+        return hash;
     }
 
     // drawScene: draws scene card to be assigned to location
     public Card drawScene(){
         if (nextCard < cards.size()) {
             Card card = cards.get(nextCard);
+            if(journal != null) journal.record(this, NEXT_CARD, nextCard, nextCard + 1);
             nextCard++;
             return card;
         } else {
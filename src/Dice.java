@@ -1,18 +1,20 @@
 // imports
-import java.util.Collections;
-import java.util.List;
-import java.util.ArrayList;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 
 public class Dice {
     // fields
     private int sides; // signifies dice type, will be d6 here
-    private Random rand;
+    private SplittableRandom rand; // owned by one game, never shared between threads
 
-    // constructor
+    // constructors
     public Dice(int sides) {
+        this(sides, new SplittableRandom());
+    }
+
+    public Dice(int sides, SplittableRandom rand) {
         this.sides = sides;
-        this.rand = new Random();
+        this.rand = rand;
     }
 
 
@@ -21,14 +23,17 @@ public class Dice {
         return rand.nextInt(sides)+1;
     }
 
-    // wrapRoll: loop to get all dice rolls for scene wrap
-    public List<Integer> wrapRoll(int budget){
-        List<Integer> result = new ArrayList<Integer>();
+    // wrapRoll: rolls budget dice and counting-sorts them; counts[face] is how many dice showed face
+    public int[] wrapRoll(int budget, int[] counts){
+        Arrays.fill(counts, 0, sides + 1, 0);
         for(int i = 0; i < budget; i++){
-            result.add(rollDie());
+            counts[rollDie()]++;
         }
-        result.sort(Collections.reverseOrder()); // sort in descending order
-        return result;
+        return counts;
+    }
+
+    public int getSides() {
+        return sides;
     }
 
-}
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+// imports
+
+import javax.xml.stream.XMLStreamException;
+
+// GameContext: everything one game owns, so independent games can run side by side
+public class GameContext {
+    // fields
+    private final GameTemplate template;
+    private final Board board;
+    private final Deck deck;
+    private final Dice dice;
+    private final long seed;
+
+    // constructor
+    public GameContext(GameTemplate template, Board board, Deck deck, Dice dice, long seed) {
+        this.template = template;
+        this.board = board;
+        this.deck = deck;
+        this.dice = dice;
+        this.seed = seed;
+    }
+
+    // newGame: a fresh board and shuffled deck copied from the shared default template
+    public static GameContext newGame() throws XMLStreamException {
+        return GameTemplate.getDefault().newContext();
+    }
+
+    // newGame: like newGame(), but the shuffle and every die roll are replayed exactly from seed
+    public static GameContext newGame(long seed) throws XMLStreamException {
+        return GameTemplate.getDefault().newContext(seed);
+    }
+
+
+    // copy: an independent context in the same state as this one, whose dice continue from seed
+    public GameContext copy(long seed) {
+        GameContext copy = template.newContext(seed);
+
+        Card[] cardsById = new Card[copy.deck.getCards().size()];
+        for(Card card : copy.deck.getCards()) {
+            cardsById[card.getId()] = card;
+        }
+        copy.deck.copyFrom(deck, cardsById);
+        for(Card card : deck.getCards()) {
+            cardsById[card.getId()].copyStateFrom(card);
+        }
+        copy.board.copyFrom(board, cardsById);
+
+        return copy;
+    }
+
+
+    // getters and setters
+    public GameTemplate getTemplate() {
+        return template;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public Deck getDeck() {
+        return deck;
+    }
+
+    public Dice getDice() {
+        return dice;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
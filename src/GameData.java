@@ -1,13 +1,9 @@
 // imports
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -16,75 +12,81 @@ import java.util.Map;
 
 
 public class GameData {
-
-    private static GameData data;
+    // fields
+    private String boardName;
+    private List<Location> locations;
+    private List<Card> cards;
 
     // constructor
-    private GameData(InputStream boardFile, InputStream cardFile) throws ParserConfigurationException{
-        Document boardDoc = getDocFromFile(boardFile);
-        Document cardDoc = getDocFromFile(cardFile);
-        createDeck(cardDoc);
-        createBoard(boardDoc);
+    public GameData(InputStream boardFile, InputStream cardFile) throws XMLStreamException {
+        XMLInputFactory factory = createFactory();
+        createDeck(getReader(factory, cardFile, "cards"));
+        createBoard(getReader(factory, boardFile, "board"));
     }
 
-    // initializeGameData: initializes game data
-    public static void initializeGameData(InputStream boardFile, InputStream cardFile) throws ParserConfigurationException {
-        if(data != null) {
-            throw new IllegalStateException("Game data already initialized");
-        }
-        data = new GameData(boardFile, cardFile);
+    // getters and setters
+    public String getBoardName() {
+        return this.boardName;
     }
 
-    // getDocFromFile: gets doc for parsing
-    private Document getDocFromFile(InputStream filename) throws ParserConfigurationException {
-        {
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance(); // create document builder factory
-            DocumentBuilder db = dbf.newDocumentBuilder(); // create document builder
-            Document doc = null; // create document
-
-            try {
-                doc = db.parse(filename); // parse file into document
-            } catch (Exception ex) {
-                System.out.println("XML parse failure");
-                ex.printStackTrace();
-            } // exception handling
-
-            return doc; // return document
-        } // exception handling
+    public List<Location> getLocations() {
+        return this.locations;
     }
 
-    // createBoard: creates board from XML doc
-    private void createBoard(Document d) {
-        d.getDocumentElement().normalize(); // normalize document
+    public List<Card> getCards() {
+        return this.cards;
+    }
 
-        String boardName = d.getDocumentElement().getAttribute("name"); // get board name
-        NodeList setNodes = d.getElementsByTagName("set"); // get location nodes
-        List<Location> tempLocations = new ArrayList<>(); // create list of locations
+    // createFactory: creates a streaming parser factory that never fetches external entities
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance(); // create stream reader factory
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false); // no DTDs in board or card files
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true); // deliver each text node in one piece
+        return factory;
+    }
 
-        for(int i = 0; i < setNodes.getLength(); i++) {
-            Node setNode = setNodes.item(i); // get location node
+    // getReader: opens a stream reader over one of the XML files
+    private static XMLStreamReader getReader(XMLInputFactory factory, InputStream file, String name) throws XMLStreamException {
+        if(file == null) {
+            throw new XMLStreamException("Missing " + name + " XML file");
+        }
+        return factory.createXMLStreamReader(file); // parse errors report their line and column
+    }
 
-            if (setNode.getNodeType() == Node.ELEMENT_NODE) {
-                Element setElement = (Element) setNode; // cast node to element
-                Location set = createSet(setElement); // create location
-                tempLocations.add(set); // add location to list
+    // createBoard: creates board locations in a single pass over the board XML
+    private void createBoard(XMLStreamReader reader) throws XMLStreamException {
+        List<Location> tempLocations = new ArrayList<>(); // create list of locations
+        Trailer trailer = null;
+        CastingOffice office = null;
+
+        try {
+            while(reader.hasNext()) {
+                if(reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    switch(reader.getLocalName()) {
+                        case "board" -> this.boardName = attribute(reader, "name"); // get board name
+                        case "set" -> tempLocations.add(createSet(reader)); // create location and add to list
+                        case "trailer" -> trailer = trailer == null ? createTrailer(reader) : trailer; // first trailer wins
+                        case "office" -> office = office == null ? createOffice(reader) : office; // first office wins
+                    }
+                }
             }
+        } finally {
+            reader.close();
         }
 
-        Trailer trailer = createTrailer((Element) d.getElementsByTagName("trailer").item(0)); // get trailer location
-        CastingOffice office = createOffice((Element) d.getElementsByTagName("office").item(0)); // get office location
+        if(trailer == null || office == null) {
+            throw new XMLStreamException("Board is missing its " + (trailer == null ? "trailer" : "office"));
+        }
 
         tempLocations.add(trailer); // add trailer to list
         tempLocations.add(office); // add office to list
 
-        Map<String, Location> locations = constructGraph(tempLocations); // create map of locations
-
-        Board.initializeBoard(boardName, locations, 10); // create board
-        // printBoard(); // calls printBoard to print list of board's locations and their neighbors for debugging purposes
+        this.locations = tempLocations;
     }
 
     // constructGraph: turns list of locations into a graph for traversals
-    private Map<String, Location> constructGraph(List<Location> tempLocations) {
+    public static Map<String, Location> constructGraph(List<Location> tempLocations) {
 
         Map<String, Location> locations = new HashMap<>(); // create map of locations
 
@@ -105,182 +107,257 @@ public class GameData {
         return locations; // return map of locations
     }
 
-    // createDeck: creates deck from XML doc
-    private void createDeck(Document d) {
-        d.getDocumentElement().normalize(); // normalize document
-
-        NodeList cardNodes = d.getElementsByTagName("card"); // get card nodes
+    // createDeck: creates deck cards in a single pass over the card XML
+    private void createDeck(XMLStreamReader reader) throws XMLStreamException {
 
         List<Card> cards = new ArrayList<>(); // create list of cards
 
-        for(int i = 0; i < cardNodes.getLength(); i++) {
-            Node cardNode = cardNodes.item(i); // get card node
-
-            if (cardNode.getNodeType() == Node.ELEMENT_NODE) {
-                Element cardElement = (Element) cardNode; // cast node to element
-                Card card = createCard(cardElement); // create card
-
-                cards.add(card); // add card to list
+        try {
+            while(reader.hasNext()) {
+                if(reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("card")) {
+                    cards.add(createCard(reader)); // create card and add to list
+                }
             }
+        } finally {
+            reader.close();
         }
 
-        Deck.initializeDeck(cards); // create deck
+        this.cards = cards;
     }
 
-    // createCard: creates model.Scene card
-    private Card createCard(Element cardElement) {
+    // createCard: creates model.Scene card; reader is positioned on <card>
+    private Card createCard(XMLStreamReader reader) throws XMLStreamException {
+
+        String cardName = attribute(reader, "name"); // get card name
+        String image = "/resources/images/cards/" + attribute(reader, "img"); // get card image path
+        int budget = intAttribute(reader, "budget"); // get card budget
+        int sceneNumber = 0;
+        String sceneDescription = null;
+        List<Role> roles = new ArrayList<>(); // create list of parts/roles
+
+        while(nextChild(reader)) {
+            switch(reader.getLocalName()) {
+                case "scene" -> {
+                    if(sceneDescription == null) { // only the first scene counts
+                        sceneNumber = intAttribute(reader, "number"); //get scene number
+                        sceneDescription = reader.getElementText(); // get scene description
+                    } else {
+                        skipElement(reader);
+                    }
+                }
+                case "part" -> roles.add(createRole(reader, true)); // create role/part
+                default -> skipElement(reader);
+            }
+        }
 
-        String cardName = cardElement.getAttribute("name"); // get card name
-        Element sceneNode = (Element) cardElement.getElementsByTagName("scene").item(0); // get scene node
-        int sceneNumber = Integer.parseInt(sceneNode.getAttribute("number")); //get scene number
-        String image = "/resources/images/cards/" + cardElement.getAttribute("img"); // get card image path
-        int budget = Integer.parseInt(cardElement.getAttribute("budget")); // get card budget
-        String sceneDescription = cardElement.getElementsByTagName("scene").item(0).getTextContent(); // get scene description
-        List<Role> roles = createRoles(cardElement.getElementsByTagName("part"), true); // get part/role nodes
+        if(sceneDescription == null) {
+            throw new XMLStreamException("Card " + cardName + " has no scene", reader.getLocation());
+        }
 
         return new Card(cardName, sceneNumber, sceneDescription, budget, roles, image, false); // create card;
     }
 
-    // createSet: creates Set location
-    private Location createSet(Element setElement) {
+    // createSet: creates Set location; reader is positioned on <set>
+    private Location createSet(XMLStreamReader reader) throws XMLStreamException {
 
-        String locationName = setElement.getAttribute("name"); // get location name
-        List<String> neighbors = createNeighbors(setElement.getElementsByTagName("neighbor")); // get neighbor nodes
-        Area locationArea = getArea((Element) setElement.getElementsByTagName("area").item(0)); // get location area
-        List<Take> takes = createTakes(setElement.getElementsByTagName("take")); // get take nodes
-        List<Role> roles = createRoles(setElement.getElementsByTagName("part"), false); // get part/role nodes
+        String locationName = attribute(reader, "name"); // get location name
+        List<String> neighbors = new ArrayList<>(); // create list of neighbors
+        Area locationArea = null;
+        List<Take> takes = new ArrayList<>(); // create list of takes
+        List<Role> roles = new ArrayList<>(); // create list of parts/roles
 
-        return new Set(locationName, neighbors, locationArea, null, takes, roles); // create set location
+        while(nextDescendant(reader, "set")) {
+            switch(reader.getLocalName()) {
+                case "neighbor" -> neighbors.add(createNeighbor(reader)); // add neighbor name to list
+                case "area" -> locationArea = locationArea == null ? getArea(reader) : locationArea; // get location area
+                case "take" -> takes.add(createTake(reader)); // create take and add to list
+                case "part" -> roles.add(createRole(reader, false)); // create role/part and add to list
+            }
+        }
+
+        return new Set(locationName, neighbors, requireArea(reader, locationArea, locationName), null, takes, roles); // create set location
     }
 
-    // createNeighbors: creates List of neighbors
-    private List<String> createNeighbors(NodeList neighborNodes) {
+    // createNeighbor: reads one neighbor name, using the location names for office and trailer
+    private String createNeighbor(XMLStreamReader reader) throws XMLStreamException {
+        String name = attribute(reader, "name");
+        if(name.equals("office")) {
+            return "Casting Office";
+        }
+        else if(name.equals("trailer")) {
+            return "Trailer";
+        }
+        return name;
+    }
 
-        List<String> neighbors = new ArrayList<>(); // create list of neighbors
+    // createTake: creates one Take; reader is positioned on <take>
+    private Take createTake(XMLStreamReader reader) throws XMLStreamException {
 
-        // iterate through neighbor nodes
-        for (int j = 0; j < neighborNodes.getLength(); j++) {
-            Node neighborNode = neighborNodes.item(j); // get neighbor node
+        int takeNumber = intAttribute(reader, "number"); // get take number
+        Area takeArea = null;
 
-            if (neighborNode.getNodeType() == Node.ELEMENT_NODE) {
-                Element neighborElement = (Element) neighborNode; // cast node to element
-                if (neighborElement.getAttribute("name").equals("office")) {
-                    neighbors.add("Casting Office"); // add office to list
-                }
-                else if (neighborElement.getAttribute("name").equals("trailer")) {
-                    neighbors.add("Trailer"); // add trailer to list
-                }
-                else {
-                    neighbors.add(neighborElement.getAttribute("name")); // add neighbor name to list
-                }
+        while(nextDescendant(reader, "take")) {
+            if(reader.getLocalName().equals("area") && takeArea == null) {
+                takeArea = getArea(reader); // get area
             }
         }
-        return neighbors;
+
+        return new Take(takeNumber, requireArea(reader, takeArea, "take " + takeNumber)); // create take
     }
 
-    // createTakes: creates List of takes
-    private List<Take> createTakes(NodeList takeNodes) {
+    // createRole: creates one Role; reader is positioned on <part>
+    private Role createRole(XMLStreamReader reader, boolean onCard) throws XMLStreamException {
 
-        List<Take> takes = new ArrayList<>(); // create list of takes
+        String partName = attribute(reader, "name"); // get part/role name
+        int partLevel = intAttribute(reader, "level"); // get part/role level
+        String partLine = optionalAttribute(reader, "line"); // get part/role line
+        Area partArea = null;
 
-        // iterate through take nodes
-        for (int j = 0; j < takeNodes.getLength(); j++) {
-            Node takeNode = takeNodes.item(j); // get take node
-
-            if (takeNode.getNodeType() == Node.ELEMENT_NODE) {
-                Element takeElement = (Element) takeNode; // cast node to element
-                Take take = createTake(takeElement); // create take
-                takes.add(take); // add take to list
+        while(nextDescendant(reader, "part")) {
+            if(reader.getLocalName().equals("area") && partArea == null) {
+                partArea = getArea(reader); // get area
             }
         }
-        return takes;
+
+        return new Role(partName, partLevel, requireArea(reader, partArea, partName), partLine, onCard, false); // create role/part
     }
 
-    // createTake: creates one Take from element
-    private Take createTake(Element takeElement) {
+    // createTrailer: creates trailer location; reader is positioned on <trailer>
+    private Trailer createTrailer(XMLStreamReader reader) throws XMLStreamException {
 
-        int takeNumber = Integer.parseInt(takeElement.getAttribute("number")); // get take number
-        Area takeArea = getArea((Element) takeElement.getElementsByTagName("area").item(0)); // get area
+        List<String> trailerNeighbors = new ArrayList<>(); // create list of trailer neighbors
+        Area trailerArea = null;
 
-        return new Take(takeNumber, takeArea); // create take
+        while(nextDescendant(reader, "trailer")) {
+            switch(reader.getLocalName()) {
+                case "neighbor" -> trailerNeighbors.add(createNeighbor(reader));
+                case "area" -> trailerArea = trailerArea == null ? getArea(reader) : trailerArea; // get trailer area
+            }
+        }
+
+        return new Trailer("Trailer", trailerNeighbors, requireArea(reader, trailerArea, "trailer")); // create trailer
     }
 
-    // createRoles: creates roles from list of parts
-    private List<Role> createRoles(NodeList partNodes, boolean onCard) {
+    // createOffice: creates office location; reader is positioned on <office>
+    private CastingOffice createOffice(XMLStreamReader reader) throws XMLStreamException {
 
-        List<Role> roles = new ArrayList<>(); // create list of parts/roles
-
-        // iterate through part/role nodes
-        for(int j = 0; j < partNodes.getLength(); j++) {
-            Node partNode = partNodes.item(j); // get part/role node
+        List<String> officeNeighbors = new ArrayList<>(); // create list of office neighbors
+        Area officeArea = null;
+        List<Upgrade> upgrades = new ArrayList<>(); // create list of upgrades
 
-            if(partNode.getNodeType() == Node.ELEMENT_NODE) {
-                Element partElement = (Element) partNode; // cast node to element
-                Role role = createRole(partElement, onCard); // create role/part
-                roles.add(role); // add part/role to list
+        while(nextDescendant(reader, "office")) {
+            switch(reader.getLocalName()) {
+                case "neighbor" -> officeNeighbors.add(createNeighbor(reader));
+                case "area" -> officeArea = officeArea == null ? getArea(reader) : officeArea; // get office area
+                case "upgrade" -> upgrades.add(createUpgrade(reader)); // create upgrade and add to list
             }
         }
-        return roles;
+
+        return new CastingOffice("Casting Office", officeNeighbors, requireArea(reader, officeArea, "office"), upgrades); // create office
     }
 
-    // createRole: creates one Role from element
-    private Role createRole(Element partElement, boolean onCard) {
+    // createUpgrade: creates one Upgrade; reader is positioned on <upgrade>
+    private Upgrade createUpgrade(XMLStreamReader reader) throws XMLStreamException {
+
+        int level = intAttribute(reader, "level"); // get upgrade level
+        String currency = attribute(reader, "currency"); // get upgrade currency
+        int amount = intAttribute(reader, "amt"); // get upgrade amount
+        Area upgradeArea = null;
 
-        String partName = partElement.getAttribute("name"); // get part/role name
-        int partLevel = Integer.parseInt(partElement.getAttribute("level")); // get part/role level
-        Area partArea = getArea((Element) partElement.getElementsByTagName("area").item(0)); // get area
-        String partLine = partElement.getAttribute("line"); // get part/role line
+        while(nextDescendant(reader, "upgrade")) {
+            if(reader.getLocalName().equals("area") && upgradeArea == null) {
+                upgradeArea = getArea(reader); // get upgrade area
+            }
+        }
 
-        return new Role(partName, partLevel, partArea, partLine, onCard, false); // create role/part
+        return new Upgrade(level, currency + "s", amount, requireArea(reader, upgradeArea, "upgrade " + level)); // create upgrade
     }
 
-    // createTrailer: creates trailer location
-    private Trailer createTrailer(Element trailerElement) {
+    // getArea: gets area object; reader is positioned on <area>
+    private static Area getArea(XMLStreamReader reader) throws XMLStreamException {
 
-        List<String> trailerNeighbors = createNeighbors(trailerElement.getElementsByTagName("neighbor")); // get trailer neighbor nodes
-        Area trailerArea = getArea((Element) trailerElement.getElementsByTagName("area").item(0)); // get trailer area
+        int x = intAttribute(reader, "x"); // get x coordinate
+        int y = intAttribute(reader, "y"); // get y coordinate
+        int h = intAttribute(reader, "h"); // get height
+        int w = intAttribute(reader, "w"); // get width
 
-        return new Trailer("Trailer", trailerNeighbors, trailerArea); // create trailer
+        return new Area(x, y, h, w); // create area
     }
 
-    // createOffice: creates office location
-    private CastingOffice createOffice(Element officeElement) {
 
-        List<String> officeNeighbors = createNeighbors(officeElement.getElementsByTagName("neighbor")); // get office neighbor nodes
-        Area officeArea = getArea((Element) officeElement.getElementsByTagName("area").item(0)); // get office area
 
-        NodeList upgradeNodes = officeElement.getElementsByTagName("upgrade"); // get upgrade nodes
-        List<Upgrade> upgrades = new ArrayList<>(); // create list of upgrades
 
-        // iterate through upgrade nodes
-        for(int i = 0; i < upgradeNodes.getLength(); i++) {
+    //********************************************************************************
+    //                               Reader Helpers
+    //********************************************************************************
 
-            Node upgradeNode = upgradeNodes.item(i); // get upgrade node
-
-            if (upgradeNode.getNodeType() == Node.ELEMENT_NODE) {
+    // nextDescendant: advances to the next start tag inside the named element, false once it closes
+    private static boolean nextDescendant(XMLStreamReader reader, String element) throws XMLStreamException {
+        while(reader.hasNext()) {
+            int event = reader.next();
+            if(event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if(event == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals(element)) {
+                return false;
+            }
+        }
+        throw new XMLStreamException("Unexpected end of file inside <" + element + ">", reader.getLocation());
+    }
 
-                Element upgradeElement = (Element) upgradeNode; // cast node to element
-                int level = Integer.parseInt(upgradeElement.getAttribute("level")); // get upgrade level
-                String currency = upgradeElement.getAttribute("currency"); // get upgrade currency
-                int amount = Integer.parseInt(upgradeElement.getAttribute("amt")); // get upgrade amount
-                Area upgradeArea = getArea((Element) upgradeElement.getElementsByTagName("area").item(0)); // get upgrade area
+    // nextChild: advances to the next direct child start tag, false at the parent's end tag
+    private static boolean nextChild(XMLStreamReader reader) throws XMLStreamException {
+        while(reader.hasNext()) {
+            int event = reader.next();
+            if(event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if(event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        throw new XMLStreamException("Unexpected end of file", reader.getLocation());
+    }
 
-                Upgrade upgrade = new Upgrade(level, currency + "s", amount, upgradeArea); // create upgrade
-                upgrades.add(upgrade); // add upgrade to list
+    // skipElement: skips the current element and everything inside it
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while(depth > 0) {
+            int event = reader.next();
+            if(event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if(event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
             }
         }
+    }
 
-        return new CastingOffice("Casting Office", officeNeighbors, officeArea, upgrades); // create office
+    private static String optionalAttribute(XMLStreamReader reader, String name) {
+        String value = reader.getAttributeValue(null, name);
+        return value == null ? "" : value; // matches Element.getAttribute for missing attributes
     }
 
-    // getArea: gets area object
-    private static Area getArea(Element area) {
+    private static String attribute(XMLStreamReader reader, String name) throws XMLStreamException {
+        String value = reader.getAttributeValue(null, name);
+        if(value == null) {
+            throw new XMLStreamException("<" + reader.getLocalName() + "> is missing attribute '" + name + "'", reader.getLocation());
+        }
+        return value;
+    }
 
-        int x = Integer.parseInt(area.getAttribute("x")); // get x coordinate
-        int y = Integer.parseInt(area.getAttribute("y")); // get y coordinate
-        int h = Integer.parseInt(area.getAttribute("h")); // get height
-        int w = Integer.parseInt(area.getAttribute("w")); // get width
+    private static int intAttribute(XMLStreamReader reader, String name) throws XMLStreamException {
+        String value = attribute(reader, name);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new XMLStreamException("<" + reader.getLocalName() + "> attribute '" + name + "' is not a number: " + value, reader.getLocation());
+        }
+    }
 
-        return new Area(x, y, h, w); // create area
+    private static Area requireArea(XMLStreamReader reader, Area area, String owner) throws XMLStreamException {
+        if(area == null) {
+            throw new XMLStreamException(owner + " has no area", reader.getLocation());
+        }
+        return area;
     }
-}
\ No newline at end of file
+}
@@ -2,14 +2,28 @@
 
 import java.util.*;
 
-public class GameManager {
+public class GameManager implements Journal.Target {
     // fields
     private List<Player> players;
     private Map<String, Map<Integer, String>> tokens;
     private Player currentPlayer;
     private int days;
+    private GameContext context;
     private Board board;
     private Dice dice;
+    private final Journal journal = new Journal(); // records nothing until recording is turned on
+    private Scoreboard scoreboard;
+
+    // journaled fields
+    private static final int CURRENT_PLAYER = 0;
+    private static final int DAYS = 1;
+
+    // scratch space reused by every scene wrap so wrapping allocates nothing
+    private final List<Player> onCardPlayers = new ArrayList<>();
+    private final List<Player> offCardPlayers = new ArrayList<>();
+    private final int[] wrapResults = new int[3];
+    private int[] wrapDice;
+    private int[] wrapPayouts = new int[4];
 
 
 
@@ -18,7 +32,12 @@ public class GameManager {
     //                                Constructor
     //********************************************************************************
     public GameManager(int numPlayers) {
-        setupGame(numPlayers);
+        setupGame(numPlayers, null);
+    }
+
+    // GameManager: plays on a caller-supplied context instead of loading a fresh one
+    public GameManager(int numPlayers, GameContext context) {
+        setupGame(numPlayers, context);
     }
 
 
@@ -27,15 +46,29 @@ public class GameManager {
     //********************************************************************************
     //                             Game Setup & State
     //********************************************************************************
-    private void setupGame(int numPlayers) {
-        SetupGame setup = new SetupGame(numPlayers);
+    private void setupGame(int numPlayers, GameContext context) {
+        SetupGame setup = new SetupGame(numPlayers, context);
         this.players = setup.setPlayers(numPlayers);
         setDays(setup.setDays(numPlayers));
         setCurrentPlayer();
-        this.board = Board.getInstance();
-        this.dice = new Dice(6);
+        this.context = setup.getContext();
+        this.board = this.context.getBoard();
+        this.dice = this.context.getDice();
+        this.wrapDice = new int[dice.getSides() + 1];
         this.tokens = setup.setTokens();
         resetPlayers();
+
+        for(int i = 0; i < players.size(); i++) {
+            players.get(i).setId(i);
+            players.get(i).setJournal(journal);
+        }
+        this.scoreboard = new Scoreboard(players);
+        scoreboard.setJournal(journal);
+        for(Player player : players) {
+            player.setScoreboard(scoreboard);
+        }
+        board.setJournal(journal);
+        journal.setHash(computeHash());
     }
 
 
@@ -44,10 +77,9 @@ public class GameManager {
             decrementDay();
             if(!gameHasEnded()){
                 resetPlayers();
-                resetRoles();
+                board.resetSets(); // only the sets whose roles or takes changed today
                 setOpenScenes(10);
                 board.dealCards();
-                resetTakes();
             } else {
                 return 1;
             }
@@ -60,12 +92,13 @@ public class GameManager {
         int startingX = 991 + 10;
         int startingY = 248 + 80;
 
+        Location trailer = board.getLocation("Trailer");
         int counter = 0; // counter for player number
         for (Player player : getPlayers()) {
             int currentX = startingX + 45 * (counter % 4);
             int currentY = startingY + 45 * (counter / 4);
 
-            player.setLocation(board.getLocation("Trailer"));
+            player.setLocation(trailer);
             player.setHasActed(false); // reset player actions
             player.setHasMoved(false);
             player.setHasRehearsed(false);
@@ -80,24 +113,40 @@ public class GameManager {
     }
 
 
-    // resetRoles: resets all off-card roles to be available for next day
-    private void resetRoles() {
-        for(Location location : board.getAllLocations().values()) {
-            if(location instanceof Set set) {
-                for(Role role : set.getRoles()) {
-                    role.setTaken(false);
-                }
-            }
+    // copy: an independent game in exactly this state; only future dice rolls differ, drawn from seed
+    public GameManager copy(long seed) {
+        GameManager copy = new GameManager(players.size(), context.copy(seed));
+        copy.setDays(getDays());
+
+        for(int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            Player target = copy.players.get(i);
+            Location location = copy.board.getLocation(player.getLocation().getId());
+
+            target.copyFrom(player);
+            target.setLocation(location);
+            target.setRole(findRole(player.getRole(), player.getLocation(), location));
         }
+
+        copy.setCurrentPlayer(copy.players.get(players.indexOf(currentPlayer)));
+        copy.scoreboard.copyFrom(scoreboard);
+        copy.journal.setHash(copy.computeHash()); // some copied state bypasses the setters
+        return copy;
     }
 
 
-    private void resetTakes() {
-        for(Location location : board.getAllLocations().values()) {
-            if(location instanceof Set set) {
-                set.resetTakes();
-            }
+    // findRole: the role in target (the same location in another game) matching role at source
+    private static Role findRole(Role role, Location source, Location target) {
+        if(role == null) {
+            return null;
+        }
+        Set sourceSet = (Set) source;
+        Set targetSet = (Set) target;
+        int index = sourceSet.getRoles().indexOf(role);
+        if(index >= 0) {
+            return targetSet.getRoles().get(index);
         }
+        return targetSet.getScene().getRoles().get(sourceSet.getScene().getRoles().indexOf(role));
     }
 
 
@@ -105,139 +154,52 @@ public class GameManager {
      public Map<String, Integer> scoreGame() {
          Map<String, Integer> scores = new LinkedHashMap<>();
          for (Player player : players) {
-             int score = player.getDollars() + player.getCredits() + (player.getRank()*5);
-             scores.put(player.getName(), score);
+             scores.put(player.getName(), getScore(player));
          }
 
          return scores;
      }
 
 
+    // getScore: dollars + credits + 5 points per rank
+    public int getScore(Player player) {
+        return scoreboard.getScore(player.getId());
+    }
 
 
-    //********************************************************************************
-    //                               Player Actions
-    //********************************************************************************
-    public void move(String location) {
-        Location destination = currentPlayer.getLocation().getNeighbor(location);
-
-        int x = destination.getArea().getX();
-        int y = destination.getArea().getY();
-
-        // dynamically set x and y coordinates based on number of players at destination
-        int counter = 0;
-        switch(location) {
-            case "Casting Office", "Trailer" -> {
-                x += 10;
-                y += 80;
-                for(Player anotherPlayer : players) {
-                    if(!anotherPlayer.equals(currentPlayer)) {
-
-                        if(anotherPlayer.getLocation().equals(destination) && !anotherPlayer.hasRole()) {
-                            x += 45;
-                            counter++;
-
-                            if(counter == 4) {
-                                x -= 180;
-                                y += 45;
-                                counter = 0;
-                            }
-                        }
-                    }
-                }
-            }
-
-            case "Hotel", "Church", "Bank", "Saloon", "General Store", "Train Station" -> {
-                y += 120;
-                for(Player anotherPlayer : players) {
-                    if(!anotherPlayer.equals(currentPlayer)) {
-
-                        if(anotherPlayer.getLocation().equals(destination) && !anotherPlayer.hasRole()) {
-                            x += 45;
-                            counter++;
-
-                            if(counter == 4) {
-                                x -= 180;
-                                y = destination.getArea().getY();
-                                counter = 0;
-                            }
-                        }
-                    }
-                }
-            }
-
-            case "Secret Hideout" -> {
-                y += 120;
-                for(Player anotherPlayer : players) {
-                    if(!anotherPlayer.equals(currentPlayer)) {
+    // getScoreboard: running scores and standings, updated as players are paid and upgrade
+    public Scoreboard getScoreboard() {
+        return scoreboard;
+    }
 
-                        if(anotherPlayer.getLocation().equals(destination) && !anotherPlayer.hasRole()) {
-                            x += 45;
-                        }
-                    }
-                }
-            }
 
-            case "Ranch" -> {
-                y += 120;
-                for(Player anotherPlayer : players) {
-                    if(!anotherPlayer.equals(currentPlayer)) {
-
-                        if(anotherPlayer.getLocation().equals(destination) && !anotherPlayer.hasRole()) {
-                            x += 45;
-                            counter++;
-
-                            if(counter == 3) {
-                                x -= 120;
-                                y += 45;
-                                counter = 0;
-                            }
-                        }
-                    }
-                }
-            }
 
-            case "Jail" -> {
-                x += 120;
-                y += 120;
-                for(Player anotherPlayer : players) {
-                    if(!anotherPlayer.equals(currentPlayer)) {
-
-                        if(anotherPlayer.getLocation().equals(destination) && !anotherPlayer.hasRole()) {
-                            x -= 45;
-                            counter++;
-
-                            if(counter == 4) {
-                                x += 180;
-                                y += 50;
-                                counter = 0;
-                            }
-                        }
-                    }
-                }
-            }
 
-            default -> {
-                y += 120;
-                for(Player anotherPlayer : players) {
-                    if(!anotherPlayer.equals(currentPlayer)) {
-
-                        if(anotherPlayer.getLocation().equals(destination) && !anotherPlayer.hasRole()) {
-                            x += 45;
-                            counter++;
-
-                            if(counter == 4) {
-                                x -= 180;
-                                y += 45;
-                                counter = 0;
-                            }
-                        }
-                    }
-                }
-            }
+    //********************************************************************************
+    //                               Player Actions
+    //********************************************************************************
+    // move: moves the current player to the named location (see move(int))
+    public void move(String location) {
+        Location destination = board.getLocation(location);
+        if(destination == null) {
+            throw new IllegalArgumentException("No location named " + location);
+        }
+        move(destination.getId());
+    }
 
 
+    // move: moves the current player to a neighboring location, by LocationGraph id
+    public void move(int location) {
+        if(!board.getGraph().isNeighbor(currentPlayer.getLocation().getId(), location)) {
+            throw new IllegalArgumentException(board.getGraph().nameOf(location) + " is not next to " + currentPlayer.getLocation().getName());
         }
+        Location destination = board.getLocation(location);
+
+        // dynamically set x and y coordinates based on number of players at destination
+        int others = destination.getIdlePlayers().size(); // players already standing there without a role
+        TokenLayout layout = destination.getTokenLayout();
+        int x = destination.getArea().getX() + layout.x(others);
+        int y = destination.getArea().getY() + layout.y(others);
 
         currentPlayer.setLocation(destination); // set player location
         currentPlayer.setPosition(x, y); // update player position
@@ -245,47 +207,74 @@ public class GameManager {
     }
 
 
+    // upgrade: buys upgrade, paying in the named currency ("dollars" or "credits")
     public void upgrade(Upgrade upgrade, String currency) {
-        int rank = upgrade.getRank();
-        int price = upgrade.getPrice();
+        upgrade(upgrade, Currency.of(currency));
+    }
 
-        if(currency.equals("dollars")) {
-            currentPlayer.setDollars(currentPlayer.getDollars() - price);
-        } else {
-            currentPlayer.setCredits(currentPlayer.getCredits() - price);
+
+    // upgrade: buys the current Casting Office's option to reach rank, paying in currency
+    public void upgrade(int rank, Currency currency) {
+        Upgrade upgrade = currentPlayer.getLocation() instanceof CastingOffice office ? office.getUpgrade(rank, currency) : null;
+        if(upgrade == null) {
+            throw new IllegalArgumentException("No upgrade to rank " + rank + " for " + currency.getName() + " here");
         }
+        upgrade(upgrade, currency);
+    }
+
 
-        currentPlayer.setRank(rank);
+    public void upgrade(Upgrade upgrade, Currency currency) {
+        currency.pay(currentPlayer, upgrade.getPrice());
+        currentPlayer.setRank(upgrade.getRank());
         currentPlayer.setHasUpgraded(true);
     }
 
 
+    // takeRole: takes the named free role at the current player's set
     public void takeRole(String r) {
         Set set = (Set) currentPlayer.getLocation();
-        List<Role> allRoles = new ArrayList<>(set.getRoles());
-        List<Role> onCardRoles = new ArrayList<>(set.getScene().getRoles());
+        List<Role> offCardRoles = set.getRoles();
+        List<Role> onCardRoles = set.getScene().getRoles();
 
-        allRoles.removeAll(onCardRoles);
-        allRoles.addAll(onCardRoles);
+        for(Role role : offCardRoles) {
+            if(!role.isTaken() && role.getName().equals(r)) {
+                takeRole(set, role);
+                return;
+            }
+        }
+        for(Role role : onCardRoles) {
+            if(!role.isTaken() && role.getName().equals(r)) {
+                takeRole(set, role);
+                return;
+            }
+        }
+    }
 
-        for(Role role : allRoles) {
-            if(!role.isTaken()) {
-                if(role.getName().equals(r)) {
-                    int x = role.getArea().getX() + 3;
-                    int y = role.getArea().getY() + 3;
 
-                    if(onCardRoles.contains(role)) {
-                        x += set.getArea().getX() - 3;
-                        y += set.getArea().getY() - 3;
-                    }
+    // takeRole: takes a free role at the current player's set, by role id (see Role.getId)
+    public void takeRole(int role) {
+        Set set = (Set) currentPlayer.getLocation();
+        Role target = set.getRole(role);
+        if(target == null || target.isTaken()) {
+            throw new IllegalArgumentException("Role " + role + " is not free at " + set.getName());
+        }
+        takeRole(set, target);
+    }
 
-                    currentPlayer.setPosition(x, y);
-                    currentPlayer.setRole(role);
-                    currentPlayer.setHasTakenRole(true);
-                    role.setTaken(true);
-                }
-            }
+
+    private void takeRole(Set set, Role role) {
+        int x = role.getArea().getX() + 3;
+        int y = role.getArea().getY() + 3;
+
+        if(role.isOnCard()) {
+            x += set.getArea().getX() - 3;
+            y += set.getArea().getY() - 3;
         }
+
+        currentPlayer.setPosition(x, y);
+        currentPlayer.setRole(role);
+        currentPlayer.setHasTakenRole(true);
+        role.setTaken(true);
     }
 
 
@@ -295,7 +284,24 @@ public class GameManager {
     }
 
 
+    // act: acts for the current player and fills result with the outcome, allocating nothing
+    public ActResult act(ActResult result) {
+        result.set(performAct());
+        return result;
+    }
+
+
     public int[] act() {
+        int result = performAct();
+
+        // return hacky boolean flags
+        return new int[] {result & Moves.SUCCESS, Moves.roll(result), (result & Moves.BONUS_ROLLED) != 0 ? 1 : 0,
+                          (result & Moves.DAY_ENDED) != 0 ? 1 : 0, (result & Moves.GAME_OVER) != 0 ? 1 : 0};
+    }
+
+
+    // performAct: acts for the current player and packs the outcome as Moves act flags plus the roll
+    private int performAct() {
         Set set = (Set) currentPlayer.getLocation();
         int budget = set.getScene().getBudget();
 
@@ -314,19 +320,15 @@ public class GameManager {
         actPay(currentPlayer.getRole().isOnCard(), isSuccess);
         currentPlayer.setHasActed(true);
 
-        int[] wrapResults;
-        int bonusRolled = 0;
-        int endDay = 0;
-        int endGame = 0;
+        int flags = isSuccess == 1 ? Moves.SUCCESS : 0;
         if(set.getScene().isWrapped()){
-            wrapResults = wrapScene();
-            bonusRolled = wrapResults[0];
-            endDay = wrapResults[1];
-            endGame = wrapResults[2];
+            int[] wrapResults = wrapScene();
+            flags |= wrapResults[0] == 1 ? Moves.BONUS_ROLLED : 0;
+            flags |= wrapResults[1] == 1 ? Moves.DAY_ENDED : 0;
+            flags |= wrapResults[2] == 1 ? Moves.GAME_OVER : 0;
         }
 
-        // return hacky boolean flags
-        return new int[] {isSuccess, diceResult, bonusRolled, endDay, endGame};
+        return Moves.actResult(flags, diceResult);
     }
 
 
@@ -337,29 +339,23 @@ public class GameManager {
     //********************************************************************************
     private int[] wrapScene() {
 
-        int[] results = new int[3]; // more hacky boolean flags
+        int[] results = wrapResults; // more hacky boolean flags, reused between wraps
 
         int bonusRolled = 0;
         int endDay = 0;
         int endGame = 0;
 
-        Location location = currentPlayer.getLocation();
+        List<Player> cast = currentPlayer.getLocation().getCastPlayers(); // everyone working a role here
 
-        List<Player> allPlayers = new ArrayList<>();
-        List<Player> onCardPlayers = new ArrayList<Player>();
-        List<Player> offCardPlayers = new ArrayList<Player>();
-
-        for(Player player : getPlayers()) {
-            if(player.getLocation().equals(location)) {
-                if(player.getRole() != null) {
-                    if(player.getRole().isOnCard()) {
-                        onCardPlayers.add(player);
-                        allPlayers.add(player);
-                    } else {
-                        offCardPlayers.add(player);
-                        allPlayers.add(player);
-                    }
-                }
+        onCardPlayers.clear();
+        offCardPlayers.clear();
+
+        for(int i = 0; i < cast.size(); i++) {
+            Player player = cast.get(i);
+            if(player.getRole().isOnCard()) {
+                onCardPlayers.add(player);
+            } else {
+                offCardPlayers.add(player);
             }
         }
 
@@ -368,10 +364,8 @@ public class GameManager {
             bonusRolled = 1;
         }
 
-        for(Player player : allPlayers) {
-            player.setRole(null);
-            player.resetPracticeChips();
-        }
+        clearRoles(onCardPlayers);
+        clearRoles(offCardPlayers);
         // decrement Open Scenes
         setOpenScenes(getOpenScenes()-1);
         if (dayHasEnded()) {
@@ -402,38 +396,50 @@ public class GameManager {
     }
 
 
+    // clearRoles: players at a wrapped scene lose their roles and practice chips
+    private void clearRoles(List<Player> wrappedPlayers) {
+        for(int i = 0; i < wrappedPlayers.size(); i++) {
+            Player player = wrappedPlayers.get(i);
+            player.setRole(null);
+            player.resetPracticeChips();
+        }
+    }
+
+
     // wrapBonus: rolls for wrap bonuses if players are on card
     private void wrapBonus(List<Player> onCardPlayers, List<Player> offCardPlayers) {
         Card card = ((Set) currentPlayer.getLocation()).getScene();
-        List<Role> onCardRoles = new ArrayList<>(card.getRoles());
-        List<Integer> results = dice.wrapRoll(card.getBudget()); // roll number of dice equal to budget
-        Map<Role, Integer> distribution = new HashMap<>(); // map of roles to results
+        List<Role> onCardRoles = card.getRoles();
+        int[] order = card.getRankOrder(); // on-card roles from highest to lowest rank
+        int[] counts = dice.wrapRoll(card.getBudget(), wrapDice); // roll number of dice equal to budget
 
-        onCardRoles.sort(Comparator.comparing(Role::getRank).reversed()); // sorts roles by rank
-
-        for(Role role : onCardRoles) {
-            distribution.put(role, 0); // add roles to distribution map
+        if(wrapPayouts.length < order.length) {
+            wrapPayouts = new int[order.length];
         }
-
-        Iterator<Integer> resultIterator = results.iterator(); // iterator for results
-        Iterator<Role> roleIterator = onCardRoles.iterator(); // iterator for roles
-
-        while(resultIterator.hasNext()) { // while there are more results
-            if(!roleIterator.hasNext()) { // if there are no more roles
-                roleIterator = onCardRoles.iterator(); // reset role iterator
+        int[] payouts = wrapPayouts; // payouts[i] is the bonus for the role at order[i]
+        Arrays.fill(payouts, 0, order.length, 0);
+
+        // deal results from highest to lowest, round robin over the roles from highest rank down
+        int slot = 0;
+        for(int face = counts.length - 1; face >= 1; face--) {
+            for(int n = counts[face]; n > 0; n--) {
+                payouts[slot] += face;
+                slot = slot + 1 == order.length ? 0 : slot + 1;
             }
-
-            Role role = roleIterator.next(); // get next role
-            int result = resultIterator.next(); // get next result
-
-            distribution.put(role, distribution.get(role) + result); // add result to role in distribution map
         }
 
-        for(Player player : onCardPlayers) {
-            player.addDollars(distribution.get(player.getRole())); // distribute dollars to players
+        for(int i = 0; i < onCardPlayers.size(); i++) {
+            Player player = onCardPlayers.get(i);
+            for(int s = 0; s < order.length; s++) {
+                if(onCardRoles.get(order[s]) == player.getRole()) {
+                    player.addDollars(payouts[s]); // distribute dollars to players
+                    break;
+                }
+            }
         }
 
-        for(Player player : offCardPlayers) { // for each off card player
+        for(int i = 0; i < offCardPlayers.size(); i++) { // for each off card player
+            Player player = offCardPlayers.get(i);
             player.addDollars(player.getRole().getRank()); // add dollars = role rank to player
         }
     }
@@ -460,6 +466,7 @@ public class GameManager {
         currentPlayer.setHasTakenRole(false);
 
         setCurrentPlayer(getPlayers().get(nextIndex)); // set next player as current player
+        scoreboard.startTurn();
     }
     
 
@@ -513,6 +520,56 @@ public class GameManager {
     }
 
     
+    // turnsTo: number of moves (one per turn) the current player needs to reach a location, or -1 if unknown
+    public int turnsTo(String location) {
+        int target = board.getGraph().idOf(location);
+        if(target == LocationGraph.UNREACHABLE) {
+            return LocationGraph.UNREACHABLE;
+        }
+        return board.getGraph().distance(currentPlayer.getLocation().getId(), target);
+    }
+
+
+    // nextStepTo: the neighbor to move to on a shortest route to a location, or null if already there
+    public String nextStepTo(String location) {
+        LocationGraph graph = board.getGraph();
+        int target = graph.idOf(location);
+        if(target == LocationGraph.UNREACHABLE) {
+            return null;
+        }
+        int next = graph.nextHop(currentPlayer.getLocation().getId(), target);
+        return next == LocationGraph.UNREACHABLE ? null : graph.nameOf(next);
+    }
+
+
+    // nearestOpenSet: the closest set, current location included, whose scene is unwrapped and still
+    // has a role the current player's rank can take; null if there is none
+    public Set nearestOpenSet() {
+        int rank = currentPlayer.getRank();
+        int id = board.getGraph().nearest(currentPlayer.getLocation().getId(),
+                                          candidate -> hasOpenRole(board.getLocation(candidate), rank));
+        return id == LocationGraph.UNREACHABLE ? null : (Set) board.getLocation(id);
+    }
+
+
+    private static boolean hasOpenRole(Location location, int rank) {
+        if(!(location instanceof Set set) || set.getScene() == null || set.getScene().isWrapped()) {
+            return false;
+        }
+        for(Role role : set.getRoles()) {
+            if(!role.isTaken() && role.getRank() <= rank) {
+                return true;
+            }
+        }
+        for(Role role : set.getScene().getRoles()) {
+            if(!role.isTaken() && role.getRank() <= rank) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    
     public Map<String, String> getAvailableRoles() {
 
         Location playerLocation = currentPlayer.getLocation();
@@ -571,6 +628,233 @@ public class GameManager {
 
 
 
+    //********************************************************************************
+    //                               Encoded Moves
+    //********************************************************************************
+
+    // legalMoves: fills buffer (at least Moves.MAX_MOVES long) with every move the current player may
+    // make, in the same cases as getAvailableActions, and returns how many there are; allocates nothing
+    public int legalMoves(int[] buffer) {
+        if(buffer.length < Moves.MAX_MOVES) {
+            throw new IllegalArgumentException("legalMoves needs a buffer of at least " + Moves.MAX_MOVES + " moves");
+        }
+        int count = 0;
+        Location location = currentPlayer.getLocation();
+        LocationGraph graph = board.getGraph();
+        int from = location.getId();
+
+        if(!playerHasRole()) {
+            if(playerCanMove()) {
+                for(int k = 0; k < graph.neighborCount(from); k++) {
+                    buffer[count++] = Moves.move(graph.neighbor(from, k));
+                }
+            }
+            if(playerCanTakeRole(location)) {
+                Set set = (Set) location;
+                List<Role> offCardRoles = set.getRoles();
+                List<Role> onCardRoles = set.getScene().getRoles();
+                int rank = currentPlayer.getRank();
+                for(int i = 0; i < offCardRoles.size(); i++) {
+                    Role role = offCardRoles.get(i);
+                    if(!role.isTaken() && role.getRank() <= rank) {
+                        buffer[count++] = Moves.takeRole(from, role.getId());
+                    }
+                }
+                for(int i = 0; i < onCardRoles.size(); i++) {
+                    Role role = onCardRoles.get(i);
+                    if(!role.isTaken() && role.getRank() <= rank) {
+                        buffer[count++] = Moves.takeRole(from, role.getId());
+                    }
+                }
+            }
+        }
+
+        if(playerHasRole() && playerCanAct()) {
+            buffer[count++] = Moves.of(Moves.ACT);
+            if(playerCanRehearse(location)) {
+                buffer[count++] = Moves.of(Moves.REHEARSE);
+            }
+        }
+
+        if(location instanceof CastingOffice office) {
+            List<Upgrade> upgrades = office.getUpgrades();
+            for(int i = 0; i < upgrades.size(); i++) {
+                Upgrade upgrade = upgrades.get(i);
+                Currency currency = upgrade.getCurrencyType();
+                if(upgrade.getRank() > currentPlayer.getRank() && currency.funds(currentPlayer) >= upgrade.getPrice()) {
+                    buffer[count++] = Moves.upgrade(upgrade.getRank(), currency);
+                }
+            }
+        }
+
+        buffer[count++] = Moves.of(Moves.END_TURN);
+        return count;
+    }
+
+
+    // apply: plays an encoded move for the current player; returns the act result for ACT, 0 otherwise
+    public int apply(int move) {
+        journal.beginMove();
+        switch(Moves.action(move)) {
+            case Moves.MOVE -> move(Moves.location(move));
+            case Moves.TAKE_ROLE -> takeRole((Set) currentPlayer.getLocation(), roleOf(move));
+            case Moves.ACT -> {
+                return performAct();
+            }
+            case Moves.REHEARSE -> rehearse();
+            case Moves.UPGRADE -> upgrade(upgradeOf(move), Moves.currency(move));
+            case Moves.END_TURN -> endTurn();
+            default -> throw new IllegalArgumentException("Unknown move: " + move);
+        }
+        return 0;
+    }
+
+
+    // locationOf: the location a MOVE or TAKE_ROLE move refers to
+    public Location locationOf(int move) {
+        return board.getLocation(Moves.location(move));
+    }
+
+
+    // roleOf: the role a TAKE_ROLE move refers to
+    public Role roleOf(int move) {
+        Set set = (Set) board.getLocation(Moves.location(move));
+        Role role = set.getRole(Moves.role(move));
+        if(role == null) {
+            throw new IllegalArgumentException("No role " + Moves.role(move) + " at " + set.getName());
+        }
+        return role;
+    }
+
+
+    // upgradeOf: the option at the current player's Casting Office that an UPGRADE move refers to
+    public Upgrade upgradeOf(int move) {
+        Currency currency = Moves.currency(move);
+        Upgrade upgrade = ((CastingOffice) currentPlayer.getLocation()).getUpgrade(Moves.rank(move), currency);
+        if(upgrade == null) {
+            throw new IllegalArgumentException("No upgrade to rank " + Moves.rank(move) + " for " + currency.getName());
+        }
+        return upgrade;
+    }
+
+
+    // describeMove: readable form of an encoded move, for logs
+    public String describeMove(int move) {
+        return switch(Moves.action(move)) {
+            case Moves.MOVE -> "Move " + locationOf(move).getName();
+            case Moves.TAKE_ROLE -> "Take Role " + roleOf(move).getName();
+            case Moves.ACT -> "Act";
+            case Moves.REHEARSE -> "Rehearse";
+            case Moves.UPGRADE -> {
+                Upgrade upgrade = upgradeOf(move);
+                yield "Upgrade " + upgrade.getRank() + " (" + upgrade.getPrice() + " " + upgrade.getCurrency() + ")";
+            }
+            case Moves.END_TURN -> "End Turn";
+            default -> "Unknown move " + move;
+        };
+    }
+
+
+
+
+    //********************************************************************************
+    //                                Undo & Redo
+    //********************************************************************************
+
+    // getJournal: this game's change journal; turn recording on to make moves undoable
+    public Journal getJournal() {
+        return journal;
+    }
+
+
+    // undo: takes back the last move played through apply(int); false if there is none
+    public boolean undo() {
+        return journal.undo();
+    }
+
+
+    // redo: plays the last undone move again, with the same dice results; false if there is none
+    public boolean redo() {
+        return journal.redo();
+    }
+
+
+    // mark: a point in the journal to roll back to later
+    public int mark() {
+        return journal.mark();
+    }
+
+
+    // rollback: takes back every change since mark
+    public void rollback(int mark) {
+        journal.rollback(mark);
+    }
+
+
+    // restore: puts back a journaled field without journaling it again
+    @Override
+    public void restore(int field, long value, Object ref) {
+        switch(field) {
+            case CURRENT_PLAYER -> this.currentPlayer = (Player) ref;
+            case DAYS -> this.days = (int) value;
+            default -> throw new IllegalArgumentException("Unknown game field " + field);
+        }
+    }
+
+
+    // snapshot: the whole game state packed into a new array just long enough for it (see StateCodec)
+    public long[] snapshot() {
+        long[] state = new long[context.getTemplate().getStateCodec().words(players.size())];
+        int bits = snapshot(state);
+        return Arrays.copyOf(state, (bits + 63) / 64);
+    }
+
+    // snapshot: packs the game state into state, reusing the array, and returns the bits used; state
+    // must be StateCodec.words(players) long
+    public int snapshot(long[] state) {
+        return context.getTemplate().getStateCodec().write(this, state, players.indexOf(currentPlayer), getDays());
+    }
+
+
+    // restore: puts this game into a state snapshot from a game with the same template and player count;
+    // the journal's history is forgotten, but the hash follows the restored state
+    public void restore(long[] state) {
+        boolean recording = journal.isRecording();
+        journal.setRecording(false);
+        context.getTemplate().getStateCodec().read(this, state);
+        setCurrentPlayer(players.get(StateCodec.currentPlayer(state)));
+        setDays(StateCodec.days(state));
+        scoreboard.clearHistory(); // the turns that led here belong to another game
+        journal.clear();
+        journal.setRecording(recording);
+    }
+
+
+    // getHash: Zobrist hash of the current position, kept up to date by the journal
+    public long getHash() {
+        return journal.getHash();
+    }
+
+
+    // computeHash: Zobrist hash of the current position computed from scratch
+    public long computeHash() {
+        long hash = hashKey(CURRENT_PLAYER, 0, currentPlayer) ^ hashKey(DAYS, days, null) ^ board.stateHash();
+        for(Player player : players) {
+            hash ^= player.stateHash();
+        }
+        return hash;
+    }
+
+
+    @Override
+    public long hashKey(int field, long value, Object ref) {
+        long v = field == CURRENT_PLAYER ? (ref == null ? -1 : ((Player) ref).getId()) : value;
+        return Zobrist.key(Zobrist.GAME, field, 0, v);
+    }
+
+
+
+
     //********************************************************************************
     //                                Get Methods
     //********************************************************************************
@@ -618,6 +902,12 @@ public class GameManager {
     }
 
     
+    // getTokenPath: image path of player's token at their current rank
+    public String getTokenPath(Player player) {
+        return tokens.get(player.getColor()).get(player.getRank());
+    }
+
+
     public Map<String, int[]> getTokens() {
         Map<String, int[]> pathmap = new HashMap<>();
 
@@ -642,6 +932,10 @@ public class GameManager {
         return players;
     }
 
+    public GameContext getContext() {
+        return context;
+    }
+
     public Player getCurrentPlayer() {
         return this.currentPlayer;
     }
@@ -661,11 +955,13 @@ public class GameManager {
 
     // setCurrentPlayer: sets current player to given player
     private void setCurrentPlayer(Player player) {
+        journal.record(this, CURRENT_PLAYER, this.currentPlayer, player);
         this.currentPlayer = player;
     }
 
 
     private void setDays(int n) {
+        journal.record(this, DAYS, this.days, n);
         this.days = n;
     }
 
@@ -0,0 +1,133 @@
+// imports
+
+import javax.xml.stream.XMLStreamException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+// GameTemplate: board and card definitions parsed once and shared read-only by every game
+public final class GameTemplate {
+    // fields
+    private static final String BOARD_FILE = "/resources/xml/board.xml";
+    private static final String CARD_FILE = "/resources/xml/cards.xml";
+    private static volatile GameTemplate defaultTemplate;
+
+    private final String boardName;
+    private final List<Location> locations; // prototypes, never handed out to a game
+    private final LocationGraph graph; // location ids follow the order of locations
+    private final StateCodec codec;
+    private final List<Card> cards; // prototypes, never handed out to a game
+
+    // constructors
+    public GameTemplate(GameData data) {
+        this(data.getBoardName(), data.getLocations(), data.getCards());
+    }
+
+    public GameTemplate(String boardName, List<Location> locations, List<Card> cards) {
+        this.boardName = boardName;
+        this.locations = List.copyOf(locations);
+        this.cards = List.copyOf(cards);
+        for(int i = 0; i < this.cards.size(); i++) {
+            this.cards.get(i).setId(i);
+        }
+        for(int i = 0; i < this.locations.size(); i++) {
+            this.locations.get(i).setId(i);
+        }
+        int roleId = 0; // every role gets its own id, copied into each game
+        for(Location location : this.locations) {
+            if(location instanceof Set set) {
+                for(Role role : set.getRoles()) {
+                    role.setId(roleId++);
+                }
+            }
+        }
+        for(Card card : this.cards) {
+            for(Role role : card.getRoles()) {
+                role.setId(roleId++);
+            }
+        }
+        if(roleId > Moves.MAX_ROLE_ID + 1) {
+            throw new IllegalArgumentException("Moves can only encode " + (Moves.MAX_ROLE_ID + 1) + " roles, found " + roleId);
+        }
+        this.graph = new LocationGraph(this.locations);
+        this.codec = new StateCodec(this);
+    }
+
+    // getDefault: loads the bundled board and cards on first use, then returns the same template
+    public static GameTemplate getDefault() throws XMLStreamException {
+        GameTemplate template = defaultTemplate;
+        if(template == null) {
+            synchronized(GameTemplate.class) {
+                template = defaultTemplate;
+                if(template == null) {
+                    template = BinaryGameData.loadDefault(); // precompiled board, if one is bundled
+                    if(template == null) {
+                        template = loadXml();
+                    }
+                    defaultTemplate = template;
+                }
+            }
+        }
+        return template;
+    }
+
+    // loadXml: parses the bundled XML files
+    public static GameTemplate loadXml() throws XMLStreamException {
+        GameData data = new GameData(GameTemplate.class.getResourceAsStream(BOARD_FILE),
+                                     GameTemplate.class.getResourceAsStream(CARD_FILE));
+        return new GameTemplate(data);
+    }
+
+
+    // newContext: copies the mutable parts of the template into a new game with a randomly seeded deck and dice
+    public GameContext newContext() {
+        return newContext(ThreadLocalRandom.current().nextLong());
+    }
+
+    // newContext: copies the mutable parts of the template into a new game; the deck and dice get
+    // their own streams split from seed, so the same seed always deals and rolls the same game
+    public GameContext newContext(long seed) {
+        SplittableRandom rand = new SplittableRandom(seed);
+
+        List<Card> deckCards = new ArrayList<>(cards.size());
+        for(Card card : cards) {
+            deckCards.add(new Card(card));
+        }
+        Deck deck = new Deck(deckCards, rand.split());
+
+        List<Location> gameLocations = new ArrayList<>(locations.size());
+        for(Location location : locations) {
+            Location copy = location.copy();
+            copy.setId(location.getId());
+            gameLocations.add(copy);
+        }
+        Map<String, Location> byName = GameData.constructGraph(gameLocations);
+
+        Board board = new Board(boardName, byName, graph, 10, deck);
+        return new GameContext(this, board, deck, new Dice(6, rand.split()), seed);
+    }
+
+
+    // getters and setters
+    public String getBoardName() {
+        return boardName;
+    }
+
+    public List<Location> getLocations() {
+        return locations;
+    }
+
+    public LocationGraph getGraph() {
+        return graph;
+    }
+
+    public StateCodec getStateCodec() {
+        return codec;
+    }
+
+    public List<Card> getCards() {
+        return cards;
+    }
+}
@@ -0,0 +1,173 @@
+// imports
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/*
+ * ImageCache: decoded images from the classpath, keyed by path and drawn size, so the board only
+ * decodes and scales each card, token and shot once. Images are converted to the screen's compatible
+ * format (or plain ARGB when headless) so Swing can blit them without converting on every paint.
+ * Entries are evicted least recently used first once their pixels would pass maxBytes. Safe to use from
+ * any thread: different images decode in parallel, and a thread asking for an image another thread is
+ * already loading waits for that load instead of decoding it again.
+ */
+public final class ImageCache {
+    // fields
+    private final long maxBytes;
+    private final Map<Key, BufferedImage> images = new LinkedHashMap<>(64, 0.75f, true); // access order
+    private final Map<Key, CompletableFuture<BufferedImage>> loading = new HashMap<>(); // being decoded or scaled
+    private long bytes;
+
+    private record Key(String path, int width, int height) {} // width and height are 0 for the natural size
+
+    // constructor
+    public ImageCache(long maxBytes) {
+        if(maxBytes < 1) {
+            throw new IllegalArgumentException("Cache needs room for at least one byte");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+
+    // get: the image at path at its natural size
+    public BufferedImage get(String path) {
+        return get(path, 0, 0);
+    }
+
+
+    // get: the image at path scaled to width x height; a size of 0 means the natural size
+    public BufferedImage get(String path, int width, int height) {
+        Key key = new Key(path, width, height);
+        CompletableFuture<BufferedImage> load;
+        synchronized(this) {
+            BufferedImage image = images.get(key);
+            if(image != null) {
+                return image;
+            }
+            load = loading.get(key);
+            if(load == null) {
+                loading.put(key, new CompletableFuture<>());
+            }
+        }
+        if(load != null) { // someone else is loading it
+            try {
+                return load.join();
+            } catch(CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        return load(key);
+    }
+
+
+    // load: decodes or scales the image for key outside the lock, then caches it and wakes any waiters
+    private BufferedImage load(Key key) {
+        BufferedImage image;
+        try {
+            boolean natural = key.width() == 0 && key.height() == 0;
+            BufferedImage source = natural ? decode(key.path()) : get(key.path());
+            image = natural || source.getWidth() == key.width() && source.getHeight() == key.height()
+                    ? source : scale(source, key.width(), key.height());
+        } catch(RuntimeException e) {
+            CompletableFuture<BufferedImage> load;
+            synchronized(this) {
+                load = loading.remove(key);
+            }
+            load.completeExceptionally(e);
+            throw e;
+        }
+        CompletableFuture<BufferedImage> load;
+        synchronized(this) {
+            put(key, image);
+            load = loading.remove(key);
+        }
+        load.complete(image);
+        return image;
+    }
+
+
+    // put: caches image under key and evicts the least recently used entries until it fits
+    private void put(Key key, BufferedImage image) {
+        images.put(key, image);
+        bytes += bytesOf(image);
+        Iterator<BufferedImage> oldest = images.values().iterator();
+        while(bytes > maxBytes && images.size() > 1) { // the newest entry always stays
+            bytes -= bytesOf(oldest.next());
+            oldest.remove();
+        }
+    }
+
+    private static long bytesOf(BufferedImage image) {
+        return 4L * image.getWidth() * image.getHeight();
+    }
+
+
+    // decode: reads the image at path and converts it to the compatible format
+    private static BufferedImage decode(String path) {
+        URL url = Objects.requireNonNull(ImageCache.class.getResource(path), path);
+        BufferedImage source;
+        try {
+            source = ImageIO.read(url);
+        } catch(IOException e) {
+            throw new UncheckedIOException("Could not read " + path, e);
+        }
+        if(source == null) {
+            throw new IllegalArgumentException("Not an image: " + path);
+        }
+        BufferedImage image = compatible(source.getWidth(), source.getHeight(), source.getColorModel().getTransparency());
+        Graphics2D g = image.createGraphics();
+        g.drawImage(source, 0, 0, null);
+        g.dispose();
+        return image;
+    }
+
+
+    // scale: smooth resize; large reductions halve step by step so bilinear filtering doesn't skip pixels
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage image = source;
+        int w;
+        int h;
+        do {
+            w = image.getWidth() / 2 >= width ? image.getWidth() / 2 : width; // halve while that stays above the target
+            h = image.getHeight() / 2 >= height ? image.getHeight() / 2 : height;
+            BufferedImage step = compatible(w, h, source.getColorModel().getTransparency());
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, w, h, null);
+            g.dispose();
+            image = step;
+        } while(w != width || h != height);
+        return image;
+    }
+
+
+    // compatible: a blank image in the default screen's pixel format
+    static BufferedImage compatible(int width, int height, int transparency) {
+        if(GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(width, height, transparency);
+    }
+
+
+    // remove: drops one image, e.g. once it has been copied into a SpriteAtlas
+    public synchronized void remove(String path, int width, int height) {
+        BufferedImage image = images.remove(new Key(path, width, height));
+        if(image != null) {
+            bytes -= bytesOf(image);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+// imports
+
+import java.util.Arrays;
+
+/*
+ * Journal: a stack of reversible changes to one game's state, so search can play moves in place and
+ * take them back instead of copying the game at every node.
+ *
+ * Every setter that changes game state (players, sets, roles, cards, the board, the deck and the
+ * GameManager itself) reports the field's old and new value here while recording is on. undo() restores
+ * old values back to the last move boundary and redo() reapplies the new ones; mark() and rollback()
+ * do the same for an arbitrary stretch of play. The dice are not journaled: after an undo, acting again
+ * rolls fresh dice rather than repeating the earlier roll.
+ *
+ * Because every change passes through here, the journal also keeps the position's Zobrist hash up to
+ * date, whether or not it is recording.
+ */
+public final class Journal {
+    // Target: a game object whose fields the journal can put back
+    public interface Target {
+        void restore(int field, long value, Object ref);
+
+        // hashKey: the Zobrist key for field holding value (or ref); 0 for fields outside the hash
+        long hashKey(int field, long value, Object ref);
+    }
+
+    // fields
+    private Target[] targets = new Target[256];
+    private int[] fields = new int[256];
+    private long[] oldValues = new long[256];
+    private long[] newValues = new long[256];
+    private Object[] oldRefs = new Object[256];
+    private Object[] newRefs = new Object[256];
+    private int size; // changes currently applied
+    private int end; // changes recorded, including undone ones that can still be redone
+
+    private int[] moves = new int[64]; // index of the first change of each move
+    private int moveCount; // moves currently applied
+    private int moveEnd; // moves recorded, including undone ones
+
+    private boolean recording;
+    private long hash; // Zobrist hash of the current position
+
+
+    // getters and setters
+    public boolean isRecording() {
+        return recording;
+    }
+
+    public void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    // setHash: sets the hash after the position was computed from scratch
+    public void setHash(long hash) {
+        this.hash = hash;
+    }
+
+
+    // record: notes a change to a numeric or boolean field
+    public void record(Target target, int field, long oldValue, long newValue) {
+        if(oldValue != newValue) {
+            hash ^= target.hashKey(field, oldValue, null) ^ target.hashKey(field, newValue, null);
+        }
+        if(recording) {
+            push(target, field, oldValue, newValue, null, null);
+        }
+    }
+
+    // record: notes a change to a reference field
+    public void record(Target target, int field, Object oldRef, Object newRef) {
+        if(oldRef != newRef) {
+            hash ^= target.hashKey(field, 0, oldRef) ^ target.hashKey(field, 0, newRef);
+        }
+        if(recording) {
+            push(target, field, 0, 0, oldRef, newRef);
+        }
+    }
+
+    private void push(Target target, int field, long oldValue, long newValue, Object oldRef, Object newRef) {
+        if(size == targets.length) {
+            int capacity = size * 2;
+            targets = Arrays.copyOf(targets, capacity);
+            fields = Arrays.copyOf(fields, capacity);
+            oldValues = Arrays.copyOf(oldValues, capacity);
+            newValues = Arrays.copyOf(newValues, capacity);
+            oldRefs = Arrays.copyOf(oldRefs, capacity);
+            newRefs = Arrays.copyOf(newRefs, capacity);
+        }
+        targets[size] = target;
+        fields[size] = field;
+        oldValues[size] = oldValue;
+        newValues[size] = newValue;
+        oldRefs[size] = oldRef;
+        newRefs[size] = newRef;
+        end = ++size; // a new change forgets anything that was undone
+        moveEnd = moveCount;
+    }
+
+
+    // beginMove: starts a new move, the unit undo() and redo() step by
+    public void beginMove() {
+        if(!recording) {
+            return;
+        }
+        if(moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, moveCount * 2);
+        }
+        moves[moveCount++] = size;
+        moveEnd = moveCount;
+        end = size;
+    }
+
+
+    // undo: takes back the last move; false if there is nothing to undo
+    public boolean undo() {
+        if(moveCount == 0) {
+            return false;
+        }
+        revert(moves[--moveCount]);
+        return true;
+    }
+
+
+    // redo: plays the last undone move again; false if there is nothing to redo
+    public boolean redo() {
+        if(moveCount == moveEnd) {
+            return false;
+        }
+        int to = ++moveCount < moveEnd ? moves[moveCount] : end;
+        for(int i = size; i < to; i++) {
+            targets[i].restore(fields[i], newValues[i], newRefs[i]);
+            hash ^= changeKey(i);
+        }
+        size = to;
+        return true;
+    }
+
+
+    // mark: a point to roll back to later
+    public int mark() {
+        return size;
+    }
+
+
+    // rollback: takes back every change since mark and forgets them
+    public void rollback(int mark) {
+        revert(mark);
+        end = size;
+        while(moveCount > 0 && moves[moveCount - 1] >= size) {
+            moveCount--;
+        }
+        moveEnd = moveCount;
+    }
+
+
+    // clear: forgets everything recorded so far without changing the game; references only ever point
+    // at the game's own objects, so stale slots are simply overwritten later
+    public void clear() {
+        size = 0;
+        end = 0;
+        moveCount = 0;
+        moveEnd = 0;
+    }
+
+
+    // revert: restores old values, newest first, down to index to
+    private void revert(int to) {
+        for(int i = size - 1; i >= to; i--) {
+            targets[i].restore(fields[i], oldValues[i], oldRefs[i]);
+            hash ^= changeKey(i);
+        }
+        size = to;
+    }
+
+
+    // changeKey: what change i did to the hash, which is also what undoing it does
+    private long changeKey(int i) {
+        if(oldValues[i] == newValues[i] && oldRefs[i] == newRefs[i]) {
+            return 0;
+        }
+        return targets[i].hashKey(fields[i], oldValues[i], oldRefs[i]) ^ targets[i].hashKey(fields[i], newValues[i], newRefs[i]);
+    }
+}
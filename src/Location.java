@@ -1,27 +1,44 @@
 // imports
 
+import java.util.ArrayList;
 import java.util.List;
 
 public abstract class Location {
     // fields
     private String name;
+    private int id; // dense index into the template's LocationGraph
     private List<String> temp; // temporary list of neighbors
     private List<Location> neighbors; // list of neighbors as Location objects
     private Area area;
+    private final TokenLayout tokenLayout; // where idle players' tokens go
+    private final List<Player> idlePlayers = new ArrayList<>(); // players here without a role, kept by Player
+    private final List<Player> castPlayers = new ArrayList<>(); // players here working a role
 
     // constructor
     public Location(String name, List<String> temp, Area area){
         this.name = name;
         this.temp = temp;
+        this.tokenLayout = TokenLayout.forLocation(name);
         setArea(area);
     }
 
 
+    // copy: creates an unconnected copy of this location for a new game
+    public abstract Location copy();
+
+
     // getters and setters
     public String getName(){
         return this.name;
     }
 
+    public int getId(){
+        return this.id;
+    }
+    public void setId(int id){
+        this.id = id;
+    }
+
     public List<String> getTemp(){
         return temp;
     }
@@ -33,13 +50,25 @@ public abstract class Location {
     public void setNeighbors(List<Location> n){
         this.neighbors = n;
     }
-    public Location getNeighbor(String name){
-        for (Location neighbor : getNeighbors()) {
-            if (neighbor.getName().equals(name)) {
-                return neighbor;
-            }
-        }
-        return null;
+
+
+    // occupancy: Player keeps these up to date whenever its location or role changes
+    public List<Player> getIdlePlayers(){
+        return this.idlePlayers;
+    }
+    public List<Player> getCastPlayers(){
+        return this.castPlayers;
+    }
+    public void addOccupant(Player player){
+        (player.hasRole() ? castPlayers : idlePlayers).add(player);
+    }
+    public void removeOccupant(Player player){
+        (player.hasRole() ? castPlayers : idlePlayers).remove(player);
+    }
+
+
+    public TokenLayout getTokenLayout(){
+        return this.tokenLayout;
     }
 
 
@@ -0,0 +1,149 @@
+// imports
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/*
+ * LocationGraph: the board's locations as dense integer ids, with adjacency in CSR form
+ * (neighbors of id are targets[offsets[id]] up to targets[offsets[id + 1]]) and precomputed
+ * all-pairs move distances and next hops. Built once per template and shared by every game.
+ */
+public final class LocationGraph {
+    // fields
+    public static final int UNREACHABLE = -1;
+
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] distance; // distance[from * size + to], in moves
+    private final int[] nextHop; // first location on a shortest path from -> to, or UNREACHABLE
+    private final int[] byDistance; // byDistance[from * size + k]: every id, closest to from first
+
+    // constructor
+    public LocationGraph(List<Location> locations) {
+        int size = locations.size();
+        this.names = new String[size];
+        this.ids = new HashMap<>();
+        for(int id = 0; id < size; id++) {
+            names[id] = locations.get(id).getName();
+            ids.put(names[id], id);
+        }
+
+        this.offsets = new int[size + 1];
+        int edges = 0;
+        for(Location location : locations) {
+            edges += location.getTemp().size();
+        }
+        this.targets = new int[edges];
+        int edge = 0;
+        for(int id = 0; id < size; id++) {
+            offsets[id] = edge;
+            for(String neighbor : locations.get(id).getTemp()) {
+                Integer target = ids.get(neighbor);
+                if(target == null) {
+                    throw new IllegalArgumentException(names[id] + " has unknown neighbor " + neighbor);
+                }
+                targets[edge++] = target;
+            }
+        }
+        offsets[size] = edge;
+
+        this.distance = new int[size * size];
+        this.nextHop = new int[size * size];
+        this.byDistance = new int[size * size];
+        for(int from = 0; from < size; from++) {
+            search(from);
+        }
+    }
+
+    // search: breadth-first search from one location, filling its rows of the distance tables
+    private void search(int from) {
+        int size = names.length;
+        int row = from * size;
+        Arrays.fill(distance, row, row + size, UNREACHABLE);
+        Arrays.fill(nextHop, row, row + size, UNREACHABLE);
+
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        distance[row + from] = 0;
+        queue.add(from);
+        int visited = 0;
+
+        while(!queue.isEmpty()) {
+            int current = queue.poll();
+            byDistance[row + visited++] = current;
+            for(int e = offsets[current]; e < offsets[current + 1]; e++) {
+                int next = targets[e];
+                if(distance[row + next] == UNREACHABLE) {
+                    distance[row + next] = distance[row + current] + 1;
+                    nextHop[row + next] = current == from ? next : nextHop[row + current];
+                    queue.add(next);
+                }
+            }
+        }
+
+        for(int id = 0; id < size; id++) { // unreachable locations go last
+            if(distance[row + id] == UNREACHABLE) {
+                byDistance[row + visited++] = id;
+            }
+        }
+    }
+
+
+    // getters and setters
+    public int size() {
+        return names.length;
+    }
+
+    // idOf: the id of the named location, or UNREACHABLE if there is no such location
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id == null ? UNREACHABLE : id;
+    }
+
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    public int neighborCount(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    // neighbor: the k-th neighbor of id, in board.xml order
+    public int neighbor(int id, int k) {
+        return targets[offsets[id] + k];
+    }
+
+    public boolean isNeighbor(int from, int to) {
+        return distance[from * names.length + to] == 1;
+    }
+
+    // distance: number of moves (so turns) from one location to another, or UNREACHABLE
+    public int distance(int from, int to) {
+        return distance[from * names.length + to];
+    }
+
+    // nextHop: the neighbor of from to move to on a shortest path to to, or UNREACHABLE
+    public int nextHop(int from, int to) {
+        return nextHop[from * names.length + to];
+    }
+
+    // nearest: the closest reachable location (from itself included) that matches, or UNREACHABLE
+    public int nearest(int from, IntPredicate matches) {
+        int row = from * names.length;
+        for(int k = 0; k < names.length; k++) {
+            int id = byDistance[row + k];
+            if(distance[row + id] == UNREACHABLE) {
+                break;
+            }
+            if(matches.test(id)) {
+                return id;
+            }
+        }
+        return UNREACHABLE;
+    }
+}
@@ -0,0 +1,167 @@
+// imports
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// MonteCarloBot: picks the move whose random playouts give the current player the best average final score
+public class MonteCarloBot implements MoveChooser {
+    // fields
+    private final int rollouts; // playouts per decision, shared out round robin between the moves
+    private final long thinkMillis; // stop starting new playouts after this long
+    private final ForkJoinPool pool;
+    private final SplittableRandom rand;
+    private final TranspositionTable table; // playout results by (position, move), shared between bots; may be null
+    private final ConcurrentLinkedQueue<GameManager> spares = new ConcurrentLinkedQueue<>(); // games to play out on
+
+    // constructors
+    public MonteCarloBot(int rollouts, long thinkMillis, ForkJoinPool pool, long seed) {
+        this(rollouts, thinkMillis, pool, seed, null);
+    }
+
+    public MonteCarloBot(int rollouts, long thinkMillis, ForkJoinPool pool, long seed, TranspositionTable table) {
+        if(rollouts < 1 || thinkMillis < 1) {
+            throw new IllegalArgumentException("Need at least one rollout and a positive thinking time");
+        }
+        this.rollouts = rollouts;
+        this.thinkMillis = thinkMillis;
+        this.pool = pool;
+        this.rand = new SplittableRandom(seed);
+        this.table = table;
+    }
+
+
+    // choose: runs playouts for every legal move in parallel on the pool and keeps the best average
+    @Override
+    public int choose(GameManager game, int[] moves, int count) {
+        if(count == 1) {
+            return moves[0];
+        }
+
+        int player = game.getPlayers().indexOf(game.getCurrentPlayer());
+        long deadline = System.nanoTime() + thinkMillis * 1_000_000L;
+        long baseSeed;
+        synchronized(rand) {
+            baseSeed = rand.nextLong();
+        }
+
+        int[] candidates = Arrays.copyOf(moves, count); // the caller may reuse moves
+        AtomicLongArray totals = new AtomicLongArray(count);
+        AtomicLongArray counts = new AtomicLongArray(count);
+        long position = game.getHash();
+        if(table != null) { // start from what earlier searches learned about the same position and move
+            for(int m = 0; m < count; m++) {
+                long entry = table.probe(TranspositionTable.moveKey(position, candidates[m]));
+                if(entry != TranspositionTable.MISSING) {
+                    totals.set(m, TranspositionTable.totalScore(entry));
+                    counts.set(m, TranspositionTable.count(entry));
+                }
+            }
+        }
+        AtomicInteger next = new AtomicInteger();
+        long[] state = game.snapshot();
+
+        Callable<Void> worker = () -> {
+            GameManager local = null; // a spare game set to this position, rewound after every playout
+            try {
+                for(int r = next.getAndIncrement(); r < rollouts && System.nanoTime() < deadline; r = next.getAndIncrement()) {
+                    if(local == null) {
+                        local = checkout(game, state, baseSeed + r);
+                    }
+                    int m = r % count;
+                    totals.addAndGet(m, rollout(local, candidates[m], player, baseSeed + r));
+                    counts.incrementAndGet(m);
+                }
+            } finally {
+                if(local != null) {
+                    spares.add(local);
+                }
+            }
+            return null;
+        };
+
+        List<Callable<Void>> workers = new ArrayList<>();
+        for(int w = Math.min(pool.getParallelism(), rollouts); w > 0; w--) {
+            workers.add(worker);
+        }
+        pool.invokeAll(workers); // every worker pulls playouts until they run out or time is up
+
+        if(table != null) {
+            for(int m = 0; m < count; m++) {
+                long n = counts.get(m);
+                long total = totals.get(m);
+                while(n > 0xFFFFFF) { // keep the average but fit the count in the entry
+                    n >>= 1;
+                    total >>= 1;
+                }
+                table.store(TranspositionTable.moveKey(position, candidates[m]), TranspositionTable.playouts(n, total));
+            }
+        }
+
+        int best = 0;
+        double bestAverage = Double.NEGATIVE_INFINITY;
+        for(int m = 0; m < count; m++) {
+            if(counts.get(m) > 0) {
+                double average = (double) totals.get(m) / counts.get(m);
+                if(average > bestAverage) {
+                    bestAverage = average;
+                    best = m;
+                }
+            }
+        }
+        return candidates[best];
+    }
+
+
+    // checkout: a spare game restored to state, or a fresh copy of game if no spare fits
+    private GameManager checkout(GameManager game, long[] state, long seed) {
+        GameManager spare;
+        while((spare = spares.poll()) != null) {
+            if(spare.getContext().getTemplate() == game.getContext().getTemplate()
+                    && spare.getPlayers().size() == game.getPlayers().size()) {
+                spare.restore(state); // one pass over a few dozen longs instead of a deep copy
+                return spare;
+            }
+        }
+        spare = game.copy(seed);
+        spare.getJournal().setRecording(true);
+        return spare;
+    }
+
+
+    // rollout: plays move on the worker's copy, finishes the game with random players, notes player's
+    // score and then rolls the copy back to where it started
+    private int rollout(GameManager copy, int move, int player, long seed) {
+        SplittableRandom rolloutRand = new SplittableRandom(seed);
+        int mark = copy.mark();
+
+        List<MoveChooser> choosers = new ArrayList<>();
+        for(int p = 0; p < copy.getPlayers().size(); p++) {
+            choosers.add(new RandomMoveChooser(rolloutRand.split()));
+        }
+
+        Simulation simulation = new Simulation(copy, choosers);
+        simulation.apply(move);
+        simulation.play();
+        int score = copy.getScore(copy.getPlayers().get(player));
+
+        copy.rollback(mark);
+        return score;
+    }
+
+
+    // getters and setters
+    public int getRollouts() {
+        return rollouts;
+    }
+
+    public long getThinkMillis() {
+        return thinkMillis;
+    }
+}
@@ -0,0 +1,8 @@
+// imports
+
+// MoveChooser: decides what the current player does next in a headless game
+public interface MoveChooser {
+
+    // choose: picks one of the first count encoded moves (see Moves) for the current player of game
+    int choose(GameManager game, int[] moves, int count);
+}
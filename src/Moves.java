@@ -0,0 +1,89 @@
+// imports
+
+/*
+ * Moves: a move packed into one int, so search code can generate and play moves without allocating.
+ *
+ *   bits  0-2   action (MOVE, TAKE_ROLE, ACT, REHEARSE, UPGRADE, END_TURN)
+ *   bits  3-10  target location id (LocationGraph id) for MOVE and TAKE_ROLE
+ *   bits 11-20  role id for TAKE_ROLE (Role.getId, the same id GameManager.takeRole(int) takes)
+ *   bits 21-24  rank for UPGRADE
+ *   bit  25     currency for UPGRADE (Currency.code())
+ *
+ * GameManager.legalMoves fills a buffer with these and GameManager.apply plays one. apply returns the
+ * outcome of an act the same way: the SUCCESS, BONUS_ROLLED, DAY_ENDED and GAME_OVER flags, plus the
+ * die roll above them.
+ */
+public final class Moves {
+    // fields
+    public static final int MAX_MOVES = 32; // more than any position offers; legalMoves buffers need this many
+    public static final int MAX_ROLE_ID = 0x3FF;
+
+    public static final int MOVE = 1;
+    public static final int TAKE_ROLE = 2;
+    public static final int ACT = 3;
+    public static final int REHEARSE = 4;
+    public static final int UPGRADE = 5;
+    public static final int END_TURN = 6;
+
+    public static final int SUCCESS = 1; // act flags
+    public static final int BONUS_ROLLED = 2;
+    public static final int DAY_ENDED = 4;
+    public static final int GAME_OVER = 8;
+    private static final int ROLL_SHIFT = 4;
+
+    private static final int LOCATION_SHIFT = 3;
+    private static final int ROLE_SHIFT = 11;
+    private static final int RANK_SHIFT = 21;
+    private static final int CURRENCY_SHIFT = 25;
+
+    private Moves() {}
+
+
+    // encoders
+    public static int of(int action) {
+        return action;
+    }
+
+    public static int move(int location) {
+        return MOVE | location << LOCATION_SHIFT;
+    }
+
+    public static int takeRole(int location, int role) {
+        return TAKE_ROLE | location << LOCATION_SHIFT | role << ROLE_SHIFT;
+    }
+
+    public static int upgrade(int rank, Currency currency) {
+        return UPGRADE | rank << RANK_SHIFT | currency.code() << CURRENCY_SHIFT;
+    }
+
+    public static int actResult(int flags, int roll) {
+        return flags | roll << ROLL_SHIFT;
+    }
+
+
+    // decoders
+    public static int action(int move) {
+        return move & 0x7;
+    }
+
+    public static int location(int move) {
+        return move >>> LOCATION_SHIFT & 0xFF;
+    }
+
+    public static int role(int move) {
+        return move >>> ROLE_SHIFT & MAX_ROLE_ID;
+    }
+
+    public static int rank(int move) {
+        return move >>> RANK_SHIFT & 0xF;
+    }
+
+    public static Currency currency(int move) {
+        return Currency.of(move >>> CURRENCY_SHIFT & 0x1);
+    }
+
+    // roll: the die roll recorded in an act result
+    public static int roll(int result) {
+        return result >>> ROLL_SHIFT;
+    }
+}
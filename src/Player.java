@@ -1,4 +1,4 @@
-public class Player {
+public class Player implements Journal.Target {
     // fields
     private String name;
     private String color;
@@ -15,6 +15,23 @@ public class Player {
     private boolean hasTakenRole;
     private int playerX;
     private int playerY;
+    private int id; // position in the game's player list, the same in every copy of the game
+    private Journal journal;
+    private Scoreboard scoreboard; // told about every change to rank, credits or dollars
+
+    // journaled fields
+    private static final int RANK = 0;
+    private static final int CREDITS = 1;
+    private static final int DOLLARS = 2;
+    private static final int ROLE = 3;
+    private static final int PRACTICE_CHIPS = 4;
+    private static final int LOCATION = 5;
+    private static final int HAS_MOVED = 6;
+    private static final int HAS_UPGRADED = 7;
+    private static final int HAS_ACTED = 8;
+    private static final int HAS_REHEARSED = 9;
+    private static final int HAS_TAKEN_ROLE = 10;
+    private static final int POSITION = 11;
 
 
     // constructor
@@ -44,7 +61,9 @@ public class Player {
 
 
     public void setRank(int rank) {
+        if(journal != null) journal.record(this, RANK, this.rank, rank);
         this.rank = rank;
+        rescore();
     }
     public int getRank() {
         return rank;
@@ -52,7 +71,9 @@ public class Player {
 
 
     public void setCredits(int credits) {
+        if(journal != null) journal.record(this, CREDITS, this.credits, credits);
         this.credits = credits;
+        rescore();
     }
     public int getCredits() {
         return credits;
@@ -63,7 +84,9 @@ public class Player {
 
 
     public void setDollars(int dollars) {
+        if(journal != null) journal.record(this, DOLLARS, this.dollars, dollars);
         this.dollars = dollars;
+        rescore();
     }
     public int getDollars() {
         return dollars;
@@ -74,10 +97,11 @@ public class Player {
 
 
     public void setRole() {
-        this.role = null;
+        setRole(null);
     }
     public void setRole(Role role) {
-        this.role = role;
+        if(journal != null) journal.record(this, ROLE, this.role, role);
+        changeRole(role);
     }
     public Role getRole() {
         return role;
@@ -88,10 +112,14 @@ public class Player {
 
 
     public void addPracticeChips() {
-        this.practiceChips += 1;
+        setPracticeChips(practiceChips + 1);
     }
     public void resetPracticeChips() {
-        this.practiceChips = 0;
+        setPracticeChips(0);
+    }
+    public void setPracticeChips(int practiceChips) {
+        if(journal != null) journal.record(this, PRACTICE_CHIPS, this.practiceChips, practiceChips);
+        this.practiceChips = practiceChips;
     }
     public int getPracticeChips() {
         return practiceChips;
@@ -99,7 +127,8 @@ public class Player {
 
 
     public void setLocation(Location location) {
-        this.location = location;
+        if(journal != null) journal.record(this, LOCATION, this.location, location);
+        changeLocation(location);
     }
     public Location getLocation() {
         return location;
@@ -107,6 +136,7 @@ public class Player {
 
 
     public void setHasMoved(boolean hasMoved) {
+        if(journal != null) journal.record(this, HAS_MOVED, this.hasMoved ? 1 : 0, hasMoved ? 1 : 0);
         this.hasMoved = hasMoved;
     }
     public boolean getHasMoved() {
@@ -115,6 +145,7 @@ public class Player {
 
 
     public void setHasUpgraded(boolean hasUpgraded) {
+        if(journal != null) journal.record(this, HAS_UPGRADED, this.hasUpgraded ? 1 : 0, hasUpgraded ? 1 : 0);
         this.hasUpgraded = hasUpgraded;
     }
     public boolean getHasUpgraded() {
@@ -123,6 +154,7 @@ public class Player {
 
 
     public void setHasActed(boolean hasActed) {
+        if(journal != null) journal.record(this, HAS_ACTED, this.hasActed ? 1 : 0, hasActed ? 1 : 0);
         this.hasActed = hasActed;
     }
     public boolean getHasActed() {
@@ -131,6 +163,7 @@ public class Player {
 
 
     public void setHasRehearsed(boolean hasRehearsed) {
+        if(journal != null) journal.record(this, HAS_REHEARSED, this.hasRehearsed ? 1 : 0, hasRehearsed ? 1 : 0);
         this.hasRehearsed = hasRehearsed;
     }
     public boolean getHasRehearsed() {
@@ -139,6 +172,7 @@ public class Player {
 
 
     public void setHasTakenRole(boolean b) {
+        if(journal != null) journal.record(this, HAS_TAKEN_ROLE, this.hasTakenRole ? 1 : 0, b ? 1 : 0);
         this.hasTakenRole = b;
     }
     public boolean getHasTakenRole() {
@@ -146,6 +180,7 @@ public class Player {
     }
 
     public void setPosition(int x, int y) {
+        if(journal != null) journal.record(this, POSITION, packPosition(playerX, playerY), packPosition(x, y));
         this.playerX = x;
         this.playerY = y;
     }
@@ -157,4 +192,118 @@ public class Player {
     public String getColor() {
         return color;
     }
+
+    public int getId() {
+        return id;
+    }
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    public void setScoreboard(Scoreboard scoreboard) {
+        this.scoreboard = scoreboard;
+    }
+
+    private void rescore() {
+        if(scoreboard != null) scoreboard.update(id);
+    }
+
+    private static long packPosition(int x, int y) {
+        return (long) x << 32 | (y & 0xFFFFFFFFL);
+    }
+
+
+    // restore: puts back a journaled field without journaling it again
+    @Override
+    public void restore(int field, long value, Object ref) {
+        switch(field) {
+            case RANK -> {
+                this.rank = (int) value;
+                rescore();
+            }
+            case CREDITS -> {
+                this.credits = (int) value;
+                rescore();
+            }
+            case DOLLARS -> {
+                this.dollars = (int) value;
+                rescore();
+            }
+            case ROLE -> changeRole((Role) ref);
+            case PRACTICE_CHIPS -> this.practiceChips = (int) value;
+            case LOCATION -> changeLocation((Location) ref);
+            case HAS_MOVED -> this.hasMoved = value == 1;
+            case HAS_UPGRADED -> this.hasUpgraded = value == 1;
+            case HAS_ACTED -> this.hasActed = value == 1;
+            case HAS_REHEARSED -> this.hasRehearsed = value == 1;
+            case HAS_TAKEN_ROLE -> this.hasTakenRole = value == 1;
+            case POSITION -> {
+                this.playerX = (int) (value >> 32);
+                this.playerY = (int) value;
+            }
+            default -> throw new IllegalArgumentException("Unknown player field " + field);
+        }
+    }
+
+    // changeRole, changeLocation: update the field and the occupancy index of the location
+    private void changeRole(Role role) {
+        if(location != null) {
+            location.removeOccupant(this);
+        }
+        this.role = role;
+        if(location != null) {
+            location.addOccupant(this);
+        }
+    }
+
+    private void changeLocation(Location location) {
+        if(this.location != null) {
+            this.location.removeOccupant(this);
+        }
+        this.location = location;
+        if(location != null) {
+            location.addOccupant(this);
+        }
+    }
+
+
+    // hashKey: Zobrist key of a field; the token position follows from the rest, so it is not hashed
+    @Override
+    public long hashKey(int field, long value, Object ref) {
+        return switch(field) {
+            case ROLE -> Zobrist.key(Zobrist.PLAYER, field, id, ref == null ? -1 : ((Role) ref).getId());
+            case LOCATION -> Zobrist.key(Zobrist.PLAYER, field, id, ref == null ? -1 : ((Location) ref).getId());
+            case POSITION -> 0;
+            default -> Zobrist.key(Zobrist.PLAYER, field, id, value);
+        };
+    }
+
+    // stateHash: XOR of the keys of every hashed field's current value
+    public long stateHash() {
+        return hashKey(RANK, rank, null) ^ hashKey(CREDITS, credits, null) ^ hashKey(DOLLARS, dollars, null)
+                ^ hashKey(ROLE, 0, role) ^ hashKey(PRACTICE_CHIPS, practiceChips, null) ^ hashKey(LOCATION, 0, location)
+                ^ hashKey(HAS_MOVED, hasMoved ? 1 : 0, null) ^ hashKey(HAS_UPGRADED, hasUpgraded ? 1 : 0, null)
+                ^ hashKey(HAS_ACTED, hasActed ? 1 : 0, null) ^ hashKey(HAS_REHEARSED, hasRehearsed ? 1 : 0, null)
+                ^ hashKey(HAS_TAKEN_ROLE, hasTakenRole ? 1 : 0, null);
+    }
+
+
+    // copyFrom: copies everything but location and role from the same player in another game
+    public void copyFrom(Player other) {
+        setName(other.name);
+        setRank(other.rank);
+        setCredits(other.credits);
+        setDollars(other.dollars);
+        setPracticeChips(other.practiceChips);
+        setHasMoved(other.hasMoved);
+        setHasUpgraded(other.hasUpgraded);
+        setHasActed(other.hasActed);
+        setHasRehearsed(other.hasRehearsed);
+        setHasTakenRole(other.hasTakenRole);
+        setPosition(other.playerX, other.playerY);
+    }
 }
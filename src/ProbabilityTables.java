@@ -0,0 +1,205 @@
+// imports
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * ProbabilityTables: exact odds for acting and for scene-wrap bonuses, computed once and shared.
+ *
+ * Acting succeeds when one d6 plus practice chips reaches the budget. A wrap rolls budget d6, sorts
+ * them from highest to lowest and deals them round robin to the on-card roles from highest rank down,
+ * so a role's payout depends only on the budget, the number of on-card roles and its position in rank
+ * order. Tables are therefore keyed by (budget, role count), and a card's own roles are mapped onto
+ * those slots through Card.getRankOrder(). WrapReport prints the wrap tables for every card.
+ */
+public final class ProbabilityTables {
+    // fields
+    public static final int SIDES = 6;
+    private static final int MAX_TABLE_BUDGET = 12; // budgets up to this many dice are precomputed
+    private static final int MAX_TABLE_ROLES = 6;
+
+    private static final double[][] ACT_SUCCESS = new double[MAX_TABLE_BUDGET + 1][];
+    private static final WrapTable[][] WRAP = new WrapTable[MAX_TABLE_BUDGET + 1][MAX_TABLE_ROLES + 1];
+    private static final Map<Integer, WrapTable> LARGE_WRAP = new ConcurrentHashMap<>();
+
+    static {
+        for(int budget = 1; budget <= MAX_TABLE_BUDGET; budget++) {
+            ACT_SUCCESS[budget] = new double[budget + 1];
+            for(int chips = 0; chips <= budget; chips++) {
+                ACT_SUCCESS[budget][chips] = computeActSuccess(budget, chips);
+            }
+            for(int roles = 1; roles <= MAX_TABLE_ROLES; roles++) {
+                WRAP[budget][roles] = new WrapTable(budget, roles);
+            }
+        }
+    }
+
+    private ProbabilityTables() {}
+
+
+    //********************************************************************************
+    //                                   Acting
+    //********************************************************************************
+
+    // actSuccess: chance that one roll plus chips reaches budget
+    public static double actSuccess(int budget, int chips) {
+        if(budget >= 1 && budget <= MAX_TABLE_BUDGET && chips >= 0) {
+            return ACT_SUCCESS[budget][Math.min(chips, budget)];
+        }
+        return computeActSuccess(budget, chips);
+    }
+
+    // expectedActPayout: expected dollars plus credits from one act (on card: 2 credits on success;
+    // off card: 1 dollar and 1 credit on success, 1 dollar on failure)
+    public static double expectedActPayout(int budget, int chips, boolean onCard) {
+        double success = actSuccess(budget, chips);
+        return onCard ? 2 * success : 1 + success;
+    }
+
+    private static double computeActSuccess(int budget, int chips) {
+        int needed = budget - chips; // lowest face that succeeds
+        int faces = SIDES - Math.max(needed, 1) + 1;
+        return Math.max(0, Math.min(SIDES, faces)) / (double) SIDES;
+    }
+
+
+    //********************************************************************************
+    //                                Wrap Bonuses
+    //********************************************************************************
+
+    // wrap: payout distributions for every rank slot when budget dice are shared by roles on-card roles
+    public static WrapTable wrap(int budget, int roles) {
+        if(budget < 0 || roles < 1) {
+            throw new IllegalArgumentException("Need a non-negative budget and at least one role");
+        }
+        if(budget >= 1 && budget <= MAX_TABLE_BUDGET && roles <= MAX_TABLE_ROLES) {
+            return WRAP[budget][roles];
+        }
+        return LARGE_WRAP.computeIfAbsent(budget * 1024 + roles, key -> new WrapTable(budget, roles));
+    }
+
+    // wrap: payout distributions for a card's own roles
+    public static WrapTable wrap(Card card) {
+        return wrap(card.getBudget(), card.getRoles().size());
+    }
+
+    // expectedWrapBonus: expected wrap bonus for one of card's on-card roles
+    public static double expectedWrapBonus(Card card, Role role) {
+        int slot = slotOf(card, role);
+        return slot < 0 ? 0 : wrap(card).getMean(slot);
+    }
+
+    // wrapBonusVariance: variance of the wrap bonus for one of card's on-card roles
+    public static double wrapBonusVariance(Card card, Role role) {
+        int slot = slotOf(card, role);
+        return slot < 0 ? 0 : wrap(card).getVariance(slot);
+    }
+
+    // slotOf: position of role in the card's rank order, or -1 if it is not on this card
+    public static int slotOf(Card card, Role role) {
+        int[] order = card.getRankOrder();
+        for(int slot = 0; slot < order.length; slot++) {
+            if(card.getRoles().get(order[slot]) == role) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+
+    // WrapTable: exact payout distribution per rank slot for one (budget, role count)
+    public static final class WrapTable {
+        // fields
+        private final int budget;
+        private final int roles;
+        private final double[][] distribution; // distribution[slot][dollars]
+        private final double[] mean;
+        private final double[] variance;
+
+        // constructor
+        private WrapTable(int budget, int roles) {
+            this.budget = budget;
+            this.roles = roles;
+            this.distribution = new double[roles][];
+            for(int slot = 0; slot < roles; slot++) {
+                int dice = budget / roles + (slot < budget % roles ? 1 : 0); // dice dealt to this slot
+                distribution[slot] = new double[dice * SIDES + 1];
+            }
+            enumerate(new int[SIDES + 1], SIDES, budget, 1.0);
+
+            this.mean = new double[roles];
+            this.variance = new double[roles];
+            for(int slot = 0; slot < roles; slot++) {
+                double square = 0; // E[dollars^2]
+                for(int dollars = 0; dollars < distribution[slot].length; dollars++) {
+                    mean[slot] += dollars * distribution[slot][dollars];
+                    square += (double) dollars * dollars * distribution[slot][dollars];
+                }
+                variance[slot] = Math.max(0, square - mean[slot] * mean[slot]); // rounding can dip just below 0
+            }
+        }
+
+        // enumerate: walks every multiset of rolls (counts per face) with its multinomial probability,
+        // choosing how many of the remaining dice show face, from the highest face down
+        private void enumerate(int[] counts, int face, int remaining, double ways) {
+            if(face == 1) {
+                counts[1] = remaining;
+                record(counts, ways * Math.pow(SIDES, -budget));
+                return;
+            }
+            double choose = 1;
+            for(int n = 0; n <= remaining; n++) {
+                counts[face] = n;
+                enumerate(counts, face - 1, remaining - n, ways * choose);
+                choose = choose * (remaining - n) / (n + 1); // C(remaining, n + 1)
+            }
+        }
+
+        // record: deals one sorted roll to the slots, exactly like GameManager.wrapBonus
+        private void record(int[] counts, double probability) {
+            int[] payouts = new int[roles];
+            int slot = 0;
+            for(int face = SIDES; face >= 1; face--) {
+                for(int n = counts[face]; n > 0; n--) {
+                    payouts[slot] += face;
+                    slot = slot + 1 == roles ? 0 : slot + 1;
+                }
+            }
+            for(slot = 0; slot < roles; slot++) {
+                distribution[slot][payouts[slot]] += probability;
+            }
+        }
+
+
+        // getters and setters
+        public int getBudget() {
+            return budget;
+        }
+
+        public int getRoles() {
+            return roles;
+        }
+
+        // getProbability: chance that the role in rank slot receives exactly dollars
+        public double getProbability(int slot, int dollars) {
+            double[] slotDistribution = distribution[slot];
+            return dollars < 0 || dollars >= slotDistribution.length ? 0 : slotDistribution[dollars];
+        }
+
+        public int getMaxPayout(int slot) {
+            return distribution[slot].length - 1;
+        }
+
+        public double getMean(int slot) {
+            return mean[slot];
+        }
+
+        public double getVariance(int slot) {
+            return variance[slot];
+        }
+
+        public double getStandardDeviation(int slot) {
+            return Math.sqrt(variance[slot]);
+        }
+    }
+}
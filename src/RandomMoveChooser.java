@@ -0,0 +1,24 @@
+// imports
+
+import java.util.SplittableRandom;
+
+public class RandomMoveChooser implements MoveChooser {
+    // fields
+    private final SplittableRandom rand;
+
+    // constructors
+    public RandomMoveChooser(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    public RandomMoveChooser(SplittableRandom rand) {
+        this.rand = rand;
+    }
+
+
+    // choose: picks a legal move uniformly at random
+    @Override
+    public int choose(GameManager game, int[] moves, int count) {
+        return moves[rand.nextInt(count)];
+    }
+}
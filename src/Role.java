@@ -1,4 +1,4 @@
-public class Role {
+public class Role implements Journal.Target {
     // fields
     private String name;
     private String flavorText;
@@ -6,6 +6,12 @@ public class Role {
     private Area area;
     private boolean onCard;
     private boolean taken;
+    private int id; // assigned by the template, the same in every game
+    private Set set; // the set an off-card role belongs to; null on cards
+    private Journal journal;
+
+    // journaled fields
+    private static final int TAKEN = 0;
 
 
     // constructor
@@ -19,6 +25,13 @@ public class Role {
     }
 
 
+    // Role: copies a role definition for a new game
+    public Role(Role other) {
+        this(other.name, other.rank, other.area, other.flavorText, other.onCard, other.taken);
+        this.id = other.id;
+    }
+
+
     // getters and setters
     public String getName(){
         return name;
@@ -27,6 +40,10 @@ public class Role {
         this.name = n;
     }
 
+    public String getFlavorText(){
+        return flavorText;
+    }
+
     public int getRank(){
         return rank;
     }
@@ -42,7 +59,43 @@ public class Role {
         return taken;
     }
     public void setTaken(boolean t){
+        if(journal != null) journal.record(this, TAKEN, this.taken ? 1 : 0, t ? 1 : 0);
         this.taken = t;
+        if(set != null) set.markDirty();
+    }
+
+    public void setSet(Set set){
+        this.set = set;
+    }
+
+    public int getId(){
+        return id;
+    }
+    public void setId(int id){
+        this.id = id;
+    }
+
+    public void setJournal(Journal journal){
+        this.journal = journal;
+    }
+
+    // restore: puts back a journaled field without journaling it again
+    @Override
+    public void restore(int field, long value, Object ref){
+        if(field != TAKEN) {
+            throw new IllegalArgumentException("Unknown role field " + field);
+        }
+        this.taken = value == 1;
+        if(set != null) set.markDirty();
+    }
+
+    @Override
+    public long hashKey(int field, long value, Object ref){
+        return Zobrist.key(Zobrist.ROLE, field, id, value);
+    }
+
+    public long stateHash(){
+        return hashKey(TAKEN, taken ? 1 : 0, null);
     }
 
     public void setArea(Area a) {
@@ -0,0 +1,196 @@
+// imports
+
+import java.util.List;
+
+/*
+ * Scoreboard: every player's score (dollars + credits + 5 per rank) and the standings, kept up to date
+ * as money and rank change instead of being recomputed on demand. Players report their own changes, so
+ * payouts, upgrades, undo and restores all land here. The scores and standings at the start of the
+ * last HISTORY turns are kept in a ring for getDelta, bots and analytics; older turns are overwritten.
+ * Nothing is allocated after construction.
+ */
+public final class Scoreboard implements Journal.Target {
+    // fields
+    public static final int HISTORY = 64; // turns kept
+
+    private final Player[] players; // by player id
+    private final int[] scores; // by player id
+    private final int[] ranking; // player ids from first place to last; ties keep player order
+    private final int[] places; // by player id, index into ranking
+    private final int[] turnScores; // [slot * players + id]: scores at the start of a turn, slot = turn % HISTORY
+    private final int[] turnRankings; // [slot * players + place]: the ranking at the start of the same turn
+    private int turns; // turns started since construction or clearHistory, wrapped below 2 * HISTORY
+    private Journal journal;
+
+    // journaled fields: TURNS, then one per entry of turnScores, then one per entry of turnRankings
+    private static final int TURNS = 0;
+
+    // constructor
+    public Scoreboard(List<Player> players) {
+        int count = players.size();
+        this.players = players.toArray(new Player[0]);
+        this.scores = new int[count];
+        this.ranking = new int[count];
+        this.places = new int[count];
+        this.turnScores = new int[HISTORY * count];
+        this.turnRankings = new int[HISTORY * count];
+        for(int id = 0; id < count; id++) {
+            scores[id] = score(this.players[id]);
+            ranking[id] = id;
+        }
+        for(int id = 0; id < count; id++) { // insertion sort into first to last place
+            for(int place = id; place > 0 && ahead(ranking[place], ranking[place - 1]); place--) {
+                swap(place, place - 1);
+            }
+        }
+        for(int place = 0; place < count; place++) {
+            places[ranking[place]] = place;
+        }
+        startTurn();
+    }
+
+    private static int score(Player player) {
+        return player.getDollars() + player.getCredits() + player.getRank() * 5;
+    }
+
+    // ahead: whether player a ranks above player b
+    private boolean ahead(int a, int b) {
+        return scores[a] > scores[b] || scores[a] == scores[b] && a < b;
+    }
+
+    private void swap(int i, int j) {
+        int a = ranking[i];
+        ranking[i] = ranking[j];
+        ranking[j] = a;
+        places[ranking[i]] = i;
+        places[ranking[j]] = j;
+    }
+
+
+    // update: rescores one player and moves them up or down the standings
+    public void update(int id) {
+        scores[id] = score(players[id]);
+        int place = places[id];
+        while(place > 0 && ahead(id, ranking[place - 1])) {
+            swap(place, place - 1);
+            place--;
+        }
+        while(place < ranking.length - 1 && ahead(ranking[place + 1], id)) {
+            swap(place, place + 1);
+            place++;
+        }
+    }
+
+
+    // startTurn: records everyone's score and the ranking as the start of a new turn, over the oldest one
+    public void startTurn() {
+        int start = turns % HISTORY * scores.length;
+        for(int i = 0; i < scores.length; i++) {
+            if(journal != null) {
+                journal.record(this, 1 + start + i, turnScores[start + i], scores[i]);
+                journal.record(this, 1 + turnScores.length + start + i, turnRankings[start + i], ranking[i]);
+            }
+            turnScores[start + i] = scores[i];
+            turnRankings[start + i] = ranking[i];
+        }
+        int next = turns + 1 < 2 * HISTORY ? turns + 1 : turns + 1 - HISTORY; // same slots, never overflows
+        if(journal != null) journal.record(this, TURNS, turns, next);
+        turns = next;
+    }
+
+
+    // clearHistory: forgets past turns, keeping only the current scores as the start of a new turn
+    public void clearHistory() {
+        if(journal != null) journal.record(this, TURNS, turns, 0);
+        turns = 0;
+        startTurn();
+    }
+
+
+    // copyFrom: takes the turn history of the same players in another game
+    public void copyFrom(Scoreboard other) {
+        System.arraycopy(other.turnScores, 0, turnScores, 0, turnScores.length);
+        System.arraycopy(other.turnRankings, 0, turnRankings, 0, turnRankings.length);
+        this.turns = other.turns;
+    }
+
+
+    // getters and setters
+    public int getScore(int id) {
+        return scores[id];
+    }
+
+    // getPlayerAt: id of the player in place (0 is the leader)
+    public int getPlayerAt(int place) {
+        return ranking[place];
+    }
+
+    public int getPlace(int id) {
+        return places[id];
+    }
+
+    public int getLeader() {
+        return ranking[0];
+    }
+
+    // getLead: how far the leader is ahead of second place
+    public int getLead() {
+        return ranking.length < 2 ? 0 : scores[ranking[0]] - scores[ranking[1]];
+    }
+
+    // getDelta: how much a player's score changed since the start of the current turn
+    public int getDelta(int id) {
+        return scores[id] - getScoreAt(0, id);
+    }
+
+    // getTurns: how many turns back getScoreAt and getRankingAt can look, counting the current one
+    public int getTurns() {
+        return Math.min(turns, HISTORY);
+    }
+
+    // getScoreAt: a player's score at the start of the turn turnsAgo turns back (0 is the current turn)
+    public int getScoreAt(int turnsAgo, int id) {
+        return turnScores[slot(turnsAgo) + id];
+    }
+
+    // getRankingAt: the player in place at the start of the turn turnsAgo turns back (0 is the current turn)
+    public int getRankingAt(int turnsAgo, int place) {
+        return turnRankings[slot(turnsAgo) + place];
+    }
+
+    private int slot(int turnsAgo) {
+        if(turnsAgo < 0 || turnsAgo >= getTurns()) {
+            throw new IndexOutOfBoundsException("Turn " + turnsAgo + " back of " + getTurns() + " kept");
+        }
+        return (turns - 1 - turnsAgo) % HISTORY * scores.length;
+    }
+
+    public int size() {
+        return scores.length;
+    }
+
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+
+    // restore: puts back the turn count or one entry of the turn history
+    @Override
+    public void restore(int field, long value, Object ref) {
+        if(field == TURNS) {
+            this.turns = (int) value;
+        } else if(field > 0 && field <= turnScores.length) {
+            turnScores[field - 1] = (int) value;
+        } else if(field > turnScores.length && field <= 2 * turnScores.length) {
+            turnRankings[field - 1 - turnScores.length] = (int) value;
+        } else {
+            throw new IllegalArgumentException("Unknown scoreboard field " + field);
+        }
+    }
+
+    // hashKey: the turn history is not part of the position
+    @Override
+    public long hashKey(int field, long value, Object ref) {
+        return 0;
+    }
+}
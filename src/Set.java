@@ -3,12 +3,18 @@
 import java.util.ArrayList;
 import java.util.List;
 
-public class Set extends Location {
+public class Set extends Location implements Journal.Target {
     // fields
     private Card card;
     private List<Take> takes;
     private final List<Take> backupTakes;
     private List<Role> roles;
+    private Journal journal;
+    private boolean dirty; // takes or roles changed since the last reset
+
+    // journaled fields
+    private static final int SCENE = 0;
+    private static final int TAKES = 1; // takes left; the remaining takes are always a prefix of backupTakes
 
     // constructor
     public Set(String name, List<String> neighbors, Area area, Card card, List<Take> takes, List<Role> roles) {
@@ -16,12 +22,26 @@ public class Set extends Location {
         setScene(card);
         this.takes = takes;
         this.roles = roles;
-        this.backupTakes = new ArrayList<>(takes);
+        for(Role role : roles) {
+            role.setSet(this);
+        }
+        this.backupTakes = List.copyOf(takes);
+    }
+
+    // copy: fresh takes and roles for a new game; takes and areas are never modified so they are shared
+    @Override
+    public Set copy() {
+        List<Role> roleCopies = new ArrayList<>(roles.size());
+        for(Role role : roles) {
+            roleCopies.add(new Role(role));
+        }
+        return new Set(getName(), getTemp(), getArea(), null, new ArrayList<>(backupTakes), roleCopies);
     }
 
 
     // getters and setters
     public void setScene(Card s){
+        if(journal != null) journal.record(this, SCENE, this.card, s);
         this.card = s;
     }
     public Card getScene(){
@@ -33,19 +53,118 @@ public class Set extends Location {
         return this.takes;
     }
 
+    // getAllTakes: every take the set starts the day with; getTakes() is always a prefix of it
+    public List<Take> getAllTakes(){
+        return this.backupTakes;
+    }
+
     // decrementTakes: decrements the current take and wraps the scene if necessary
     public void decrementTakes() {
+        if(journal != null) journal.record(this, TAKES, takes.size(), takes.size() - 1);
         takes.remove(takes.size()-1);
+        markDirty();
         boolean wrap = takes.isEmpty();
         getScene().setWrap(wrap);
     }
 
+    // copyFrom: copies the scene, remaining takes, taken roles and dirty flag of the same set in another game
+    public void copyFrom(Set other, Card[] cardsById) {
+        setScene(other.card == null ? null : cardsById[other.card.getId()]);
+        setTakesLeft(other.takes.size());
+        for(int i = 0; i < roles.size(); i++) {
+            roles.get(i).setTaken(other.roles.get(i).isTaken());
+        }
+        this.dirty = other.dirty; // same takes and roles, so the copy needs a reset exactly when the original does
+    }
+
     public void resetTakes() {
-        takes.clear();
-        takes.addAll(backupTakes);
+        setTakesLeft(backupTakes.size());
+    }
+
+    // setTakesLeft: leaves the first n takes of the set in place
+    public void setTakesLeft(int n) {
+        if(journal != null) journal.record(this, TAKES, takes.size(), n);
+        trimTakes(n);
+    }
+
+    private void trimTakes(int n) {
+        markDirty();
+        while(takes.size() > n) {
+            takes.remove(takes.size() - 1);
+        }
+        while(takes.size() < n) {
+            takes.add(backupTakes.get(takes.size()));
+        }
     }
 
     public List<Role> getRoles(){
         return this.roles;
     }
+
+    // getRole: the off-card role or role on the current scene with the given id, or null; role ids run
+    // consecutively within a set and within a card, so this is an offset rather than a search
+    public Role getRole(int id){
+        Role role = roleAt(roles, id);
+        return role != null || card == null ? role : roleAt(card.getRoles(), id);
+    }
+
+    private static Role roleAt(List<Role> roles, int id){
+        if(roles.isEmpty()) {
+            return null;
+        }
+        int index = id - roles.get(0).getId();
+        return index >= 0 && index < roles.size() ? roles.get(index) : null;
+    }
+
+
+    // dirty tracking: any change to the takes or the off-card roles marks the set, including changes
+    // put back by the journal, so a day reset can skip the sets nobody touched
+    public boolean isDirty(){
+        return dirty;
+    }
+    public void markDirty(){
+        this.dirty = true;
+    }
+
+    // reset: frees the off-card roles and restores every take for a new day
+    public void reset(){
+        for(Role role : roles) {
+            role.setTaken(false);
+        }
+        resetTakes();
+        this.dirty = false;
+    }
+
+    // setJournal: journals this set and its off-card roles
+    public void setJournal(Journal journal){
+        this.journal = journal;
+        for(Role role : roles) {
+            role.setJournal(journal);
+        }
+    }
+
+    // restore: puts back a journaled field without journaling it again
+    @Override
+    public void restore(int field, long value, Object ref){
+        switch(field) {
+            case SCENE -> this.card = (Card) ref;
+            case TAKES -> trimTakes((int) value);
+            default -> throw new IllegalArgumentException("Unknown set field " + field);
+        }
+    }
+
+    @Override
+    public long hashKey(int field, long value, Object ref){
+        long v = field == SCENE ? (ref == null ? -1 : ((Card) ref).getId()) : value;
+        return Zobrist.key(Zobrist.SET, field, getId(), v);
+    }
+
+    // stateHash: scene, takes left and off-card roles; the scene card hashes itself through the deck
+    public long stateHash(){
+        long hash = hashKey(SCENE, 0, card) ^ hashKey(TAKES, takes.size(), null);
+        for(Role role : roles) {
+            hash ^= role.stateHash();
+        }
+        return hash;
+    }
 }
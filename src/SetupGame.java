@@ -4,32 +4,41 @@ import java.util.*;
 
 
 public class SetupGame {
+    // fields
+    public static final List<String> TOKEN_COLORS = List.of("b", "c", "g", "o", "p", "r", "v", "y"); // by player number
+    private GameContext context;
 
     // constructor
     public SetupGame(int numPlayers) {
+        this(numPlayers, null);
+    }
+
+    // SetupGame: uses the given context, or loads a fresh one from the XML files if it is null
+    public SetupGame(int numPlayers, GameContext context) {
         // Exception catch
         try{
-            GameData.initializeGameData(getClass().getResourceAsStream("/resources/xml/board.xml"),
-                                        getClass().getResourceAsStream("/resources/xml/cards.xml"));
+            this.context = context != null ? context : GameContext.newGame();
             setPlayers(numPlayers);
             setDays(numPlayers);
         }
-        catch (Exception e){
-            System.out.println("Error loading Game Data.");
-            e.printStackTrace();
+        catch (Exception e){ // a game without its board and deck can't be played, so don't carry on with one
+            throw new IllegalStateException("Error loading Game Data.", e);
         }
     }
 
+    // tokenPath: image of a token in one of TOKEN_COLORS at rank 1 to 6
+    public static String tokenPath(String color, int rank) {
+        return "/resources/images/tokens/" + color + rank + ".png";
+    }
+
+
     public Map<String, Map<Integer, String>> setTokens() {
         Map<String, Map<Integer, String>> tokens = new HashMap<>();
-        List<String> colors = Arrays.asList("b", "c", "g", "o", "p", "r", "v", "y");
-        String prefix = "/resources/images/tokens/";
 
-        for(String color : colors) {
+        for(String color : TOKEN_COLORS) {
             Map<Integer, String> token = new HashMap<>();
             for(int rank = 1; rank <= 6; rank++) {
-                String path = prefix + color + rank + ".png";
-                token.put(rank, path);
+                token.put(rank, tokenPath(color, rank));
             }
             tokens.put(color, token);
         }
@@ -38,9 +47,12 @@ public class SetupGame {
     }
 
     // getters and setters
+    public GameContext getContext() {
+        return context;
+    }
+
     public List<Player> setPlayers(int numPlayers) {
 
-        String[] colors = {"b", "c", "g", "o", "p", "r", "v", "y"};
         List<Player> players = new ArrayList<>();
 
         int rank = 1;
@@ -57,7 +69,7 @@ public class SetupGame {
 
         for(int i = 1; i <= numPlayers; i++) {
             String playerName = "Player " + i;
-            Player player = new Player(playerName, rank, credits, dollars, colors[i - 1]);
+            Player player = new Player(playerName, rank, credits, dollars, TOKEN_COLORS.get(i - 1));
             players.add(player);
         }
 
@@ -0,0 +1,72 @@
+// imports
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// Simulation: plays one game of Deadwood to completion without the Swing front end
+public class Simulation {
+    // fields
+    private static final int MAX_STEPS = 1_000_000; // guards against choosers that never end the game
+
+    private final GameManager game;
+    private final List<MoveChooser> choosers;
+    private final int[] moves = new int[Moves.MAX_MOVES]; // legal moves, refilled every step
+    private boolean gameOver;
+    private int steps;
+
+    // constructor
+    public Simulation(GameManager game, List<MoveChooser> choosers) {
+        if(choosers.size() != game.getPlayers().size()) {
+            throw new IllegalArgumentException("Expected one chooser per player");
+        }
+        this.game = game;
+        this.choosers = choosers;
+        this.gameOver = false;
+        this.steps = 0;
+    }
+
+
+    // play: lets each player's chooser pick moves until the last day ends, then scores the game
+    public Map<String, Integer> play() {
+        while(!gameOver) {
+            if(++steps > MAX_STEPS) {
+                throw new IllegalStateException("Game did not finish within " + MAX_STEPS + " moves");
+            }
+            MoveChooser chooser = choosers.get(game.getPlayers().indexOf(game.getCurrentPlayer()));
+            int count = game.legalMoves(moves);
+            apply(chooser.choose(game, moves, count));
+        }
+        return game.scoreGame();
+    }
+
+
+    // legalMoves: every encoded move the current player of game may make, in a new array
+    public static int[] legalMoves(GameManager game) {
+        int[] buffer = new int[Moves.MAX_MOVES];
+        return Arrays.copyOf(buffer, game.legalMoves(buffer));
+    }
+
+
+    // apply: plays an encoded move for the current player, mirroring the Swing action listeners
+    public void apply(int move) {
+        int result = game.apply(move);
+        if(Moves.action(move) == Moves.ACT) {
+            if((result & Moves.GAME_OVER) != 0) {
+                gameOver = true;
+            } else if((result & Moves.DAY_ENDED) != 0) {
+                game.endTurn();
+            }
+        }
+    }
+
+
+    // getters and setters
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+}
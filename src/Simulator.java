@@ -0,0 +1,197 @@
+/*
+ * Purpose: Headless batch runner that plays many complete games across all cores
+ *
+ * Usage: java Simulator [--games N] [--players 2,3,4] [--seed S] [--threads T] [--replay G]
+ *
+ * Every game's deck, dice and choosers are seeded from gameSeed(S, game number), independent of
+ * which thread plays it, so --replay G with the same --seed and --players replays game G move for move.
+ */
+
+// imports
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class Simulator {
+    // fields
+    private final long games;
+    private final int[] playerCounts;
+    private final long seed;
+    private final int threads;
+
+    // constructor
+    public Simulator(long games, int[] playerCounts, long seed, int threads) {
+        if(games < 1 || threads < 1 || playerCounts.length == 0) {
+            throw new IllegalArgumentException("Need at least one game, one thread and one player count");
+        }
+        for(int count : playerCounts) {
+            if(count < 2 || count > 8) {
+                throw new IllegalArgumentException("Player count must be between 2 and 8: " + count);
+            }
+        }
+        this.games = games;
+        this.playerCounts = playerCounts;
+        this.seed = seed;
+        this.threads = threads;
+    }
+
+
+    // Main method
+    public static void main(String[] args) throws Exception {
+        long games = 10_000;
+        int[] playerCounts = {2, 3, 4, 5, 6, 7, 8};
+        long seed = System.nanoTime();
+        int threads = Runtime.getRuntime().availableProcessors();
+        long replay = -1;
+
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "--games" -> games = Long.parseLong(args[++i]);
+                case "--players" -> playerCounts = parseCounts(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--replay" -> replay = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        Simulator simulator = new Simulator(games, playerCounts, seed, threads);
+        if(replay >= 0) {
+            simulator.replay(replay);
+            return;
+        }
+
+        long start = System.nanoTime();
+        Stats stats = simulator.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Played %d games on %d threads in %.2f s (%.0f games/sec, seed %d)%n",
+                stats.games, threads, seconds, stats.games / seconds, seed);
+        for(int count : playerCounts) {
+            int i = count - 2;
+            if(stats.gamesByCount[i] > 0) {
+                System.out.printf("  %d players: %d games, avg winning score %.1f, avg moves %.0f%n", count,
+                        stats.gamesByCount[i],
+                        (double) stats.winningScoreByCount[i] / stats.gamesByCount[i],
+                        (double) stats.movesByCount[i] / stats.gamesByCount[i]);
+            }
+        }
+    }
+
+
+    // run: plays the configured number of games on a fixed pool of worker threads
+    public Stats run() throws Exception {
+        AtomicLong nextGame = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<Stats>> workers = new ArrayList<>();
+            for(int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    Stats stats = new Stats();
+                    for(long g = nextGame.getAndIncrement(); g < games; g = nextGame.getAndIncrement()) {
+                        playGame(g, stats);
+                    }
+                    return stats;
+                }));
+            }
+
+            Stats total = new Stats();
+            for(Future<Stats> worker : workers) {
+                total.add(worker.get());
+            }
+            return total;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+
+    // gameSeed: the seed of game number g in a batch, derived only from the batch seed and g
+    public static long gameSeed(long batchSeed, long g) {
+        return new SplittableRandom(batchSeed + g * 0x9E3779B97F4A7C15L).nextLong();
+    }
+
+    // replay: plays game number g of the batch again, printing every move and the final scores
+    public void replay(long g) throws Exception {
+        System.out.println("Replaying game " + g + " of batch seed " + seed + " (game seed " + gameSeed(seed, g) + ")");
+        Simulation simulation = newSimulation(g, true);
+        Map<String, Integer> scores = simulation.play();
+        System.out.println("Final scores after " + simulation.getSteps() + " moves: " + scores);
+    }
+
+    // newSimulation: sets up game number g; the deck, dice and each chooser get their own stream split from its seed
+    private Simulation newSimulation(long g, boolean log) throws Exception {
+        int numPlayers = playerCounts[(int) (g % playerCounts.length)];
+        SplittableRandom rand = new SplittableRandom(gameSeed(seed, g));
+        GameManager game = new GameManager(numPlayers, GameContext.newGame(rand.nextLong()));
+
+        List<MoveChooser> choosers = new ArrayList<>();
+        for(int p = 0; p < numPlayers; p++) {
+            MoveChooser chooser = new RandomMoveChooser(rand.split());
+            if(log) {
+                choosers.add((current, moves, count) -> {
+                    int move = chooser.choose(current, moves, count);
+                    System.out.println("  " + current.getCurrentPlayer().getName() + ": " + current.describeMove(move));
+                    return move;
+                });
+            } else {
+                choosers.add(chooser);
+            }
+        }
+
+        return new Simulation(game, choosers);
+    }
+
+    // playGame: plays game number g and adds its result to the worker's totals
+    private void playGame(long g, Stats stats) throws Exception {
+        int numPlayers = playerCounts[(int) (g % playerCounts.length)];
+        Simulation simulation = newSimulation(g, false);
+        Map<String, Integer> scores = simulation.play();
+
+        int best = 0;
+        for(int score : scores.values()) {
+            best = Math.max(best, score);
+        }
+
+        stats.games++;
+        stats.gamesByCount[numPlayers - 2]++;
+        stats.winningScoreByCount[numPlayers - 2] += best;
+        stats.movesByCount[numPlayers - 2] += simulation.getSteps();
+    }
+
+
+    // parseCounts: parses a comma separated list of player counts
+    private static int[] parseCounts(String list) {
+        String[] parts = list.split(",");
+        int[] counts = new int[parts.length];
+        for(int i = 0; i < parts.length; i++) {
+            counts[i] = Integer.parseInt(parts[i].trim());
+        }
+        return counts;
+    }
+
+
+    // Stats: per-worker totals, merged once all games are done
+    public static class Stats {
+        long games;
+        final long[] gamesByCount = new long[7];
+        final long[] winningScoreByCount = new long[7];
+        final long[] movesByCount = new long[7];
+
+        void add(Stats other) {
+            games += other.games;
+            for(int i = 0; i < gamesByCount.length; i++) {
+                gamesByCount[i] += other.gamesByCount[i];
+                winningScoreByCount[i] += other.winningScoreByCount[i];
+                movesByCount[i] += other.movesByCount[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+// imports
+
+import javax.xml.stream.XMLStreamException;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * SpriteAtlas: the board's small images (cards, tokens and the shot marker) packed into a few large
+ * pages, so the renderer blits sub-regions of a handful of images instead of holding about a hundred
+ * separate ones. Images are decoded and scaled through an ImageCache, copied onto the pages in shelves
+ * from tallest to shortest, and then dropped from the cache so their pixels are only kept once.
+ * Packing decodes every image, so build it off the event thread.
+ */
+public final class SpriteAtlas {
+    // fields
+    public static final int PAGE_SIZE = 2048; // page width, and the most a page can grow to
+    private static final String SHOT = "/resources/images/shot.png";
+    private static final String CARD_BACK = "/resources/images/cards/CardBack.jpg";
+
+    private final Map<Entry, Sprite> sprites; // each sprite holds its page
+
+    // Entry: an image at a drawn size; 0 x 0 is its natural size, as in ImageCache
+    public record Entry(String path, int width, int height) {}
+
+    // Sprite: where an entry sits on its page
+    public record Sprite(BufferedImage page, int x, int y, int width, int height) {
+        // draw: copies the sprite to (dx, dy) unscaled
+        public void draw(Graphics g, int dx, int dy) {
+            g.drawImage(page, dx, dy, dx + width, dy + height, x, y, x + width, y + height, null);
+        }
+    }
+
+    // constructor
+    private SpriteAtlas(Map<Entry, Sprite> sprites) {
+        this.sprites = sprites;
+    }
+
+
+    // forGame: every card at its board size and full size, the card back, all tokens and the shot marker
+    public static List<Entry> forGame(GameTemplate template) {
+        java.util.Set<Entry> entries = new LinkedHashSet<>(); // java.util.Set, not the board's Set
+        java.util.Set<Dimension> cardSizes = new LinkedHashSet<>();
+        for(Location location : template.getLocations()) {
+            if(location instanceof Set set) {
+                cardSizes.add(new Dimension(set.getArea().getW(), set.getArea().getH()));
+            }
+        }
+        for(Dimension size : cardSizes) {
+            entries.add(new Entry(CARD_BACK, size.width, size.height));
+            for(Card card : template.getCards()) {
+                entries.add(new Entry(card.getImg(), size.width, size.height));
+            }
+        }
+        for(Card card : template.getCards()) {
+            entries.add(new Entry(card.getImg(), 0, 0)); // shown when the mouse is over the card
+        }
+        for(String color : SetupGame.TOKEN_COLORS) {
+            for(int rank = 1; rank <= 6; rank++) {
+                entries.add(new Entry(SetupGame.tokenPath(color, rank), 0, 0));
+            }
+        }
+        entries.add(new Entry(SHOT, 0, 0));
+        return new ArrayList<>(entries);
+    }
+
+    // forDefaultGame: forGame for the bundled board
+    public static List<Entry> forDefaultGame() throws XMLStreamException {
+        return forGame(GameTemplate.getDefault());
+    }
+
+
+    // pack: decodes every entry through images and shelf-packs them onto pages pageSize wide
+    public static SpriteAtlas pack(ImageCache images, Collection<Entry> entries, int pageSize) {
+        List<Entry> order = new ArrayList<>(entries);
+        Map<Entry, BufferedImage> sources = new HashMap<>();
+        for(Entry entry : order) {
+            sources.put(entry, images.get(entry.path(), entry.width(), entry.height()));
+        }
+        order.sort(Comparator.comparingInt((Entry entry) -> sources.get(entry).getHeight()).reversed());
+
+        // lay out shelves: left to right, a new shelf under the tallest image of the last, a new page when full
+        Map<BufferedImage, int[]> placed = new IdentityHashMap<>(); // image -> {page, x, y}; equal entries share
+        List<Integer> pageHeights = new ArrayList<>();
+        List<Integer> pageWidths = new ArrayList<>(); // pages are cropped to what they use
+        int page = 0;
+        int x = 0;
+        int y = 0;
+        int shelf = 0; // height of the current shelf
+        pageHeights.add(0);
+        pageWidths.add(0);
+        for(Entry entry : order) {
+            BufferedImage source = sources.get(entry);
+            if(placed.containsKey(source)) {
+                continue;
+            }
+            int w = source.getWidth();
+            int h = source.getHeight();
+            if(w > pageSize || h > pageSize) {
+                throw new IllegalArgumentException(entry.path() + " is larger than a " + pageSize + " px page");
+            }
+            if(x + w > pageSize) { // next shelf
+                x = 0;
+                y += shelf;
+                shelf = 0;
+            }
+            if(y + h > pageSize) { // next page
+                page++;
+                pageHeights.add(0);
+                pageWidths.add(0);
+                x = 0;
+                y = 0;
+                shelf = 0;
+            }
+            placed.put(source, new int[] {page, x, y});
+            x += w;
+            shelf = Math.max(shelf, h);
+            pageHeights.set(page, Math.max(pageHeights.get(page), y + h));
+            pageWidths.set(page, Math.max(pageWidths.get(page), x));
+        }
+
+        List<BufferedImage> pages = new ArrayList<>();
+        for(int p = 0; p < pageHeights.size(); p++) {
+            pages.add(ImageCache.compatible(Math.max(1, pageWidths.get(p)), Math.max(1, pageHeights.get(p)), Transparency.TRANSLUCENT));
+        }
+        List<Graphics2D> graphics = new ArrayList<>();
+        for(BufferedImage image : pages) {
+            graphics.add(image.createGraphics());
+        }
+
+        Map<Entry, Sprite> sprites = new HashMap<>();
+        Map<BufferedImage, Sprite> drawn = new IdentityHashMap<>();
+        for(Entry entry : order) {
+            BufferedImage source = sources.get(entry);
+            Sprite sprite = drawn.get(source);
+            if(sprite == null) {
+                int[] spot = placed.get(source);
+                sprite = new Sprite(pages.get(spot[0]), spot[1], spot[2], source.getWidth(), source.getHeight());
+                graphics.get(spot[0]).drawImage(source, spot[1], spot[2], null);
+                drawn.put(source, sprite);
+            }
+            sprites.put(entry, sprite);
+        }
+        for(Graphics2D g : graphics) {
+            g.dispose();
+        }
+        for(Entry entry : order) {
+            images.remove(entry.path(), entry.width(), entry.height()); // the page holds the pixels now
+        }
+        return new SpriteAtlas(sprites);
+    }
+
+
+    // getters and setters
+    // get: the sprite for path drawn at width x height (0 x 0 for natural size), or null if not packed
+    public Sprite get(String path, int width, int height) {
+        return sprites.get(new Entry(path, width, height));
+    }
+
+    public Sprite get(String path) {
+        return get(path, 0, 0);
+    }
+}
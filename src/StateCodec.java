@@ -0,0 +1,344 @@
+// imports
+
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * StateCodec: packs everything that changes during a game into a long[] and back, so a position can be
+ * cloned with one array copy and archived in 9 to 16 words. Field widths come from the template
+ * (how many locations, roles and cards it has), and fields are written back to back:
+ *
+ *   header   player count, current player, days left, open scenes, next card in the deck
+ *   deck     the deck order as a Lehmer code: each card's index among the cards not yet placed
+ *   players  rank, dollars, credits, chips, location, role, five turn flags, token x and y
+ *   sets     scene card, takes left, and a taken bit per off-card role (in location id order)
+ *   cards    wrap bit and a taken bit per on-card role (in card id order)
+ *
+ * Dollars and credits are variable length: five bits holding the value's bit length, then the value, so
+ * any amount a game can reach fits and small amounts stay small. A state needs at most words(players)
+ * words, but write reports how many bits were used: with the bundled board a new game packs into 9 words
+ * (72 bytes) for 2 players and 15 (120 bytes) for 8. Limits: up to 15 players, 15 days, 64 cards,
+ * 7 ranks, 15 practice chips and token coordinates below 4096; a template with more cards is rejected
+ * when the codec is built.
+ *
+ * Names, colors and the dice are not part of the state. Restore only into a game built from the same
+ * template with the same number of players.
+ */
+public final class StateCodec {
+    // fields
+    private static final int PLAYER_COUNT_BITS = 4;
+    private static final int DAYS_BITS = 4;
+    private static final int RANK_BITS = 3;
+    private static final int LENGTH_BITS = 5; // bit length - 1 of a dollar or credit amount
+    private static final int MAX_MONEY_BITS = LENGTH_BITS + 31; // any non-negative int
+    private static final int MAX_CARDS = 64; // the deck encoding tracks placed cards in one long
+    private static final int CHIPS_BITS = 4;
+    private static final int FLAG_COUNT = 5;
+    private static final int COORDINATE_BITS = 12;
+
+    private final int cardCount;
+    private final int[] setIds; // location ids of the sets
+    private final int[] roleOwner; // role id -> location id (off-card) or card id (on-card)
+    private final int[] roleIndex; // role id -> index in its owner's role list
+    private final boolean[] roleOnCard;
+
+    private final int locationBits;
+    private final int roleBits; // role id + 1, 0 for no role
+    private final int deckBits; // the whole Lehmer-coded deck order
+    private final int sceneBits; // card id + 1, 0 for no scene; also the deck position
+    private final int takesBits;
+    private final int openScenesBits;
+    private final int fixedBits; // everything but the players
+    private final int playerBits;
+
+    // constructor
+    public StateCodec(GameTemplate template) {
+        List<Location> locations = template.getLocations();
+        List<Card> cards = template.getCards();
+        this.cardCount = cards.size();
+        if(cardCount > MAX_CARDS) {
+            throw new IllegalArgumentException("StateCodec supports up to " + MAX_CARDS + " cards, found " + cardCount);
+        }
+
+        int sets = 0;
+        int roles = 0;
+        int maxTakes = 0;
+        int setRoleBits = 0;
+        for(Location location : locations) {
+            if(location instanceof Set set) {
+                sets++;
+                roles += set.getRoles().size();
+                maxTakes = Math.max(maxTakes, set.getTakes().size());
+                setRoleBits += set.getRoles().size();
+            }
+        }
+        int cardRoleBits = 0;
+        for(Card card : cards) {
+            roles += card.getRoles().size();
+            cardRoleBits += card.getRoles().size();
+        }
+
+        this.setIds = new int[sets];
+        this.roleOwner = new int[roles];
+        this.roleIndex = new int[roles];
+        this.roleOnCard = new boolean[roles];
+        int s = 0;
+        for(Location location : locations) {
+            if(location instanceof Set set) {
+                setIds[s++] = set.getId();
+                for(int i = 0; i < set.getRoles().size(); i++) {
+                    mapRole(set.getRoles().get(i), set.getId(), i, false);
+                }
+            }
+        }
+        for(Card card : cards) {
+            for(int i = 0; i < card.getRoles().size(); i++) {
+                mapRole(card.getRoles().get(i), card.getId(), i, true);
+            }
+        }
+
+        this.locationBits = bitsFor(locations.size() - 1);
+        this.roleBits = bitsFor(roles);
+        int deckBits = 0;
+        for(int i = 0; i < cardCount - 1; i++) { // the last card is whichever is left
+            deckBits += bitsFor(cardCount - 1 - i);
+        }
+        this.deckBits = deckBits;
+        this.sceneBits = bitsFor(cardCount);
+        this.takesBits = bitsFor(maxTakes);
+        this.openScenesBits = bitsFor(sets);
+        this.fixedBits = 2 * PLAYER_COUNT_BITS + DAYS_BITS + openScenesBits + sceneBits
+                + deckBits
+                + sets * (sceneBits + takesBits) + setRoleBits
+                + cardCount + cardRoleBits;
+        this.playerBits = RANK_BITS + 2 * MAX_MONEY_BITS + CHIPS_BITS + locationBits + roleBits + FLAG_COUNT + 2 * COORDINATE_BITS;
+    }
+
+    private void mapRole(Role role, int owner, int index, boolean onCard) {
+        roleOwner[role.getId()] = owner;
+        roleIndex[role.getId()] = index;
+        roleOnCard[role.getId()] = onCard;
+    }
+
+    // bitsFor: bits needed to hold every value from 0 to max
+    private static int bitsFor(int max) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(max));
+    }
+
+
+    // words: length of a state array that can hold any state of a game with numPlayers players
+    public int words(int numPlayers) {
+        return (fixedBits + numPlayers * playerBits + 63) / 64;
+    }
+
+
+    //********************************************************************************
+    //                                   Writing
+    //********************************************************************************
+
+    // write: encodes the game's state into state, which must be words(players) long, and returns the
+    // number of bits used; words past those are left zero and can be dropped before archiving
+    public int write(GameManager game, long[] state, int currentPlayer, int days) {
+        List<Player> players = game.getPlayers();
+        Board board = game.getContext().getBoard();
+        Deck deck = game.getContext().getDeck();
+        Arrays.fill(state, 0);
+
+        int bit = 0;
+        bit = put(state, bit, PLAYER_COUNT_BITS, players.size());
+        bit = put(state, bit, PLAYER_COUNT_BITS, currentPlayer);
+        bit = put(state, bit, DAYS_BITS, days);
+        bit = put(state, bit, openScenesBits, board.getOpenScenes());
+        bit = put(state, bit, sceneBits, deck.getNextCard());
+
+        List<Card> order = deck.getCards();
+        long placed = 0;
+        for(int i = 0; i < cardCount - 1; i++) {
+            int id = order.get(i).getId();
+            bit = put(state, bit, bitsFor(cardCount - 1 - i), Long.bitCount(~placed & ((1L << id) - 1)));
+            placed |= 1L << id;
+        }
+
+        for(int p = 0; p < players.size(); p++) {
+            Player player = players.get(p);
+            int[] position = player.getPosition();
+            bit = put(state, bit, RANK_BITS, player.getRank());
+            bit = putAmount(state, bit, player.getDollars());
+            bit = putAmount(state, bit, player.getCredits());
+            bit = put(state, bit, CHIPS_BITS, player.getPracticeChips());
+            bit = put(state, bit, locationBits, player.getLocation().getId());
+            bit = put(state, bit, roleBits, player.getRole() == null ? 0 : player.getRole().getId() + 1);
+            bit = put(state, bit, 1, player.getHasMoved() ? 1 : 0);
+            bit = put(state, bit, 1, player.getHasUpgraded() ? 1 : 0);
+            bit = put(state, bit, 1, player.getHasActed() ? 1 : 0);
+            bit = put(state, bit, 1, player.getHasRehearsed() ? 1 : 0);
+            bit = put(state, bit, 1, player.getHasTakenRole() ? 1 : 0);
+            bit = put(state, bit, COORDINATE_BITS, position[0]);
+            bit = put(state, bit, COORDINATE_BITS, position[1]);
+        }
+
+        for(int id : setIds) {
+            Set set = (Set) board.getLocation(id);
+            bit = put(state, bit, sceneBits, set.getScene() == null ? 0 : set.getScene().getId() + 1);
+            bit = put(state, bit, takesBits, set.getTakes().size());
+            List<Role> roles = set.getRoles();
+            for(int i = 0; i < roles.size(); i++) {
+                bit = put(state, bit, 1, roles.get(i).isTaken() ? 1 : 0);
+            }
+        }
+
+        for(int id = 0; id < cardCount; id++) {
+            Card card = deck.getCard(id);
+            bit = put(state, bit, 1, card.isWrapped() ? 1 : 0);
+            List<Role> roles = card.getRoles();
+            for(int i = 0; i < roles.size(); i++) {
+                bit = put(state, bit, 1, roles.get(i).isTaken() ? 1 : 0);
+            }
+        }
+        return bit;
+    }
+
+    // putAmount: writes a dollar or credit amount as its bit length followed by its bits
+    private static int putAmount(long[] state, int bit, int value) {
+        if(value < 0) {
+            throw new IllegalStateException("Negative amount " + value);
+        }
+        int width = bitsFor(value);
+        bit = put(state, bit, LENGTH_BITS, width - 1);
+        return put(state, bit, width, value);
+    }
+
+    // put: writes value into the next width bits and returns the bit after it
+    private static int put(long[] state, int bit, int width, long value) {
+        if(value < 0 || value >= 1L << width) {
+            throw new IllegalStateException("Value " + value + " does not fit in " + width + " bits");
+        }
+        int word = bit >>> 6;
+        int offset = bit & 63;
+        state[word] |= value << offset;
+        if(offset + width > 64) {
+            state[word + 1] |= value >>> (64 - offset);
+        }
+        return bit + width;
+    }
+
+
+    //********************************************************************************
+    //                                   Reading
+    //********************************************************************************
+
+    // playerCount, currentPlayer, days: header fields, read without decoding the rest
+    public static int playerCount(long[] state) {
+        return (int) get(state, 0, PLAYER_COUNT_BITS);
+    }
+
+    public static int currentPlayer(long[] state) {
+        return (int) get(state, PLAYER_COUNT_BITS, PLAYER_COUNT_BITS);
+    }
+
+    public static int days(long[] state) {
+        return (int) get(state, 2 * PLAYER_COUNT_BITS, DAYS_BITS);
+    }
+
+
+    // read: puts the board, deck and players of game into the encoded state; the header's current
+    // player and days are left to the caller
+    public void read(GameManager game, long[] state) {
+        List<Player> players = game.getPlayers();
+        Board board = game.getContext().getBoard();
+        Deck deck = game.getContext().getDeck();
+        if(playerCount(state) != players.size()) {
+            throw new IllegalArgumentException("State is for " + playerCount(state) + " players, not " + players.size());
+        }
+
+        int bit = 2 * PLAYER_COUNT_BITS + DAYS_BITS;
+        board.setOpenScenes((int) get(state, bit, openScenesBits));
+        bit += openScenesBits;
+        deck.setNextCard((int) get(state, bit, sceneBits));
+        bit += sceneBits;
+
+        long free = cardCount == 64 ? -1L : (1L << cardCount) - 1;
+        for(int i = 0; i < cardCount; i++) {
+            long candidates = free;
+            if(i < cardCount - 1) {
+                int width = bitsFor(cardCount - 1 - i);
+                for(long skip = get(state, bit, width); skip > 0; skip--) {
+                    candidates &= candidates - 1; // drop the lowest free card
+                }
+                bit += width;
+            }
+            int id = Long.numberOfTrailingZeros(candidates);
+            free &= ~(1L << id);
+            deck.setCard(i, id);
+        }
+
+        for(int p = 0; p < players.size(); p++) {
+            Player player = players.get(p);
+            player.setRank((int) get(state, bit, RANK_BITS));
+            bit += RANK_BITS;
+            int width = (int) get(state, bit, LENGTH_BITS) + 1;
+            player.setDollars((int) get(state, bit + LENGTH_BITS, width));
+            bit += LENGTH_BITS + width;
+            width = (int) get(state, bit, LENGTH_BITS) + 1;
+            player.setCredits((int) get(state, bit + LENGTH_BITS, width));
+            bit += LENGTH_BITS + width;
+            player.setPracticeChips((int) get(state, bit, CHIPS_BITS));
+            bit += CHIPS_BITS;
+            player.setLocation(board.getLocation((int) get(state, bit, locationBits)));
+            bit += locationBits;
+            int role = (int) get(state, bit, roleBits);
+            player.setRole(role == 0 ? null : findRole(board, deck, role - 1));
+            bit += roleBits;
+            player.setHasMoved(get(state, bit++, 1) == 1);
+            player.setHasUpgraded(get(state, bit++, 1) == 1);
+            player.setHasActed(get(state, bit++, 1) == 1);
+            player.setHasRehearsed(get(state, bit++, 1) == 1);
+            player.setHasTakenRole(get(state, bit++, 1) == 1);
+            int x = (int) get(state, bit, COORDINATE_BITS);
+            int y = (int) get(state, bit + COORDINATE_BITS, COORDINATE_BITS);
+            player.setPosition(x, y);
+            bit += 2 * COORDINATE_BITS;
+        }
+
+        for(int id : setIds) {
+            Set set = (Set) board.getLocation(id);
+            int scene = (int) get(state, bit, sceneBits);
+            set.setScene(scene == 0 ? null : deck.getCard(scene - 1));
+            bit += sceneBits;
+            set.setTakesLeft((int) get(state, bit, takesBits));
+            bit += takesBits;
+            List<Role> roles = set.getRoles();
+            for(int i = 0; i < roles.size(); i++) {
+                roles.get(i).setTaken(get(state, bit++, 1) == 1);
+            }
+        }
+
+        for(int id = 0; id < cardCount; id++) {
+            Card card = deck.getCard(id);
+            card.setWrap(get(state, bit++, 1) == 1);
+            List<Role> roles = card.getRoles();
+            for(int i = 0; i < roles.size(); i++) {
+                roles.get(i).setTaken(get(state, bit++, 1) == 1);
+            }
+        }
+    }
+
+    // findRole: the role with the given template id in this game
+    private Role findRole(Board board, Deck deck, int id) {
+        if(roleOnCard[id]) {
+            return deck.getCard(roleOwner[id]).getRoles().get(roleIndex[id]);
+        }
+        return ((Set) board.getLocation(roleOwner[id])).getRoles().get(roleIndex[id]);
+    }
+
+    // get: reads width bits starting at bit
+    private static long get(long[] state, int bit, int width) {
+        int word = bit >>> 6;
+        int offset = bit & 63;
+        long value = state[word] >>> offset;
+        if(offset + width > 64) {
+            value |= state[word + 1] << (64 - offset);
+        }
+        return value & ((1L << width) - 1);
+    }
+}
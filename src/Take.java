@@ -15,6 +15,10 @@ public class Take {
         this.number = n;
     }
 
+    public int getNumber(){
+        return this.number;
+    }
+
     public void setArea(Area a){
         this.area = a;
     }
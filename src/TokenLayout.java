@@ -0,0 +1,51 @@
+// imports
+
+/*
+ * TokenLayout: where the next player token goes at a location, given how many idle players are already
+ * there. Each location picks its layout once, by name, when it is built, so placing a token is a
+ * switch on the layout instead of on the location's name.
+ */
+public enum TokenLayout {
+    OFFICE, // rows of four (Casting Office and Trailer)
+    ROW_ABOVE, // a second row of four above the first
+    SINGLE_ROW,
+    RANCH, // rows of three, each shifted a little right
+    JAIL, // rows of four growing leftwards
+    ROWS; // rows of four
+
+    // forLocation: the layout the board art leaves room for at the named location
+    public static TokenLayout forLocation(String name) {
+        return switch(name) {
+            case "Casting Office", "Trailer" -> OFFICE;
+            case "Hotel", "Church", "Bank", "Saloon", "General Store", "Train Station" -> ROW_ABOVE;
+            case "Secret Hideout" -> SINGLE_ROW;
+            case "Ranch" -> RANCH;
+            case "Jail" -> JAIL;
+            default -> ROWS;
+        };
+    }
+
+
+    // x: offset from the location area's x for the token after others idle players
+    public int x(int others) {
+        return switch(this) {
+            case OFFICE -> 10 + 45 * (others % 4);
+            case ROW_ABOVE, ROWS -> 45 * (others % 4);
+            case SINGLE_ROW -> 45 * others;
+            case RANCH -> 45 * (others % 3) + 15 * (others / 3);
+            case JAIL -> 120 - 45 * (others % 4);
+        };
+    }
+
+    // y: offset from the location area's y for the token after others idle players
+    public int y(int others) {
+        return switch(this) {
+            case OFFICE -> 80 + 45 * (others / 4);
+            case ROW_ABOVE -> others < 4 ? 120 : 0;
+            case SINGLE_ROW -> 120;
+            case RANCH -> 120 + 45 * (others / 3);
+            case JAIL -> 120 + 50 * (others / 4);
+            case ROWS -> 120 + 45 * (others / 4);
+        };
+    }
+}
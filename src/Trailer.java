@@ -8,4 +8,9 @@ public class Trailer extends Location {
         super(name, neighbors, area);
     }
 
+    @Override
+    public Trailer copy() {
+        return new Trailer(getName(), getTemp(), getArea());
+    }
+
 }
@@ -0,0 +1,74 @@
+// imports
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * TranspositionTable: a fixed-size, lock-free cache from 64-bit position keys to 64-bit entries,
+ * shared by search threads. Each slot stores key ^ data next to data, so a slot torn by two threads
+ * writing at once fails the key check on the next probe instead of returning another position's data.
+ * Collisions simply replace the older entry.
+ */
+public final class TranspositionTable {
+    // fields
+    public static final long MISSING = Long.MIN_VALUE; // probe result when the key is not cached
+
+    private final AtomicLongArray checks; // key ^ data per slot
+    private final AtomicLongArray data;
+    private final int mask;
+
+    // constructor
+    public TranspositionTable(int minSlots) {
+        if(minSlots < 1 || minSlots > 1 << 30) {
+            throw new IllegalArgumentException("Table needs between 1 and 2^30 slots");
+        }
+        int slots = Integer.highestOneBit(minSlots);
+        slots = slots < minSlots ? slots << 1 : slots; // round up to a power of two
+        this.checks = new AtomicLongArray(slots);
+        this.data = new AtomicLongArray(slots);
+        this.mask = slots - 1;
+    }
+
+
+    // probe: the entry stored under key, or MISSING
+    public long probe(long key) {
+        int slot = (int) key & mask;
+        long entry = data.get(slot);
+        return (checks.get(slot) ^ entry) == key && entry != MISSING ? entry : MISSING;
+    }
+
+
+    // store: caches entry under key, replacing whatever shared its slot
+    public void store(long key, long entry) {
+        int slot = (int) key & mask;
+        data.set(slot, entry);
+        checks.set(slot, key ^ entry);
+    }
+
+
+    public int getSlots() {
+        return mask + 1;
+    }
+
+
+    //********************************************************************************
+    //                              Playout Statistics
+    //********************************************************************************
+
+    // moveKey: key for playing move in the position with Zobrist hash positionHash
+    public static long moveKey(long positionHash, int move) {
+        return Zobrist.mix(positionHash ^ Zobrist.mix(move));
+    }
+
+    // playouts: entry holding a playout count (low 24 bits) and the sum of their scores (high 40 bits)
+    public static long playouts(long count, long totalScore) {
+        return totalScore << 24 | count & 0xFFFFFF;
+    }
+
+    public static long count(long entry) {
+        return entry & 0xFFFFFF;
+    }
+
+    public static long totalScore(long entry) {
+        return entry >>> 24;
+    }
+}
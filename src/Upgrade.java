@@ -1,14 +1,14 @@
 public class Upgrade {
     // fields
     private int rank;
-    private final String currency;
+    private final Currency currency;
     private final int price;
     private Area area;
 
     // constructor
     public Upgrade(int r, String c, int p, Area a) {
         setRank(r);
-        this.currency = c;
+        this.currency = Currency.of(c);
         this.price = p;
         setArea(a);
     }
@@ -23,6 +23,10 @@ public class Upgrade {
     }
 
     public String getCurrency() {
+        return currency.getName();
+    }
+
+    public Currency getCurrencyType() {
         return currency;
     }
 
@@ -0,0 +1,51 @@
+/*
+ * Purpose: Prints the exact wrap bonus every on-card role can expect, card by card
+ *
+ * Usage: java WrapReport [board.xml cards.xml]
+ * Run it from the src directory; the default is the bundled XML. Each role gets the mean and standard
+ * deviation of its wrap bonus in dollars, from ProbabilityTables, so the numbers are exact rather than
+ * sampled. A role's bonus only depends on the card's budget, its number of roles and the role's place
+ * in rank order, so cards sharing a budget and role count share one table.
+ */
+
+// imports
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.List;
+
+public class WrapReport {
+
+    // Main method
+    public static void main(String[] args) throws Exception {
+        GameData data;
+        if(args.length >= 2) {
+            try(InputStream board = new FileInputStream(args[0]); InputStream cards = new FileInputStream(args[1])) {
+                data = new GameData(board, cards);
+            }
+        } else {
+            data = new GameData(WrapReport.class.getResourceAsStream("/resources/xml/board.xml"),
+                                WrapReport.class.getResourceAsStream("/resources/xml/cards.xml"));
+        }
+
+        long start = System.nanoTime();
+        report(data.getCards());
+        System.out.printf("%d cards in %.1f ms%n", data.getCards().size(), (System.nanoTime() - start) / 1e6);
+    }
+
+
+    // report: one block per card, roles from highest rank (first pick of the dice) to lowest
+    public static void report(List<Card> cards) {
+        for(Card card : cards) {
+            ProbabilityTables.WrapTable table = ProbabilityTables.wrap(card);
+            System.out.printf("%s (budget %d, %d roles)%n", card.getName(), card.getBudget(), table.getRoles());
+
+            int[] order = card.getRankOrder();
+            for(int slot = 0; slot < order.length; slot++) {
+                Role role = card.getRoles().get(order[slot]);
+                System.out.printf("  rank %d  %-28s %6.2f +- %5.2f  (max %d)%n", role.getRank(), role.getName(),
+                        table.getMean(slot), table.getStandardDeviation(slot), table.getMaxPayout(slot));
+            }
+        }
+    }
+}
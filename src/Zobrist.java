@@ -0,0 +1,39 @@
+// imports
+
+/*
+ * Zobrist: hash keys for game-state features. A position's hash is the XOR of one key per
+ * (object, field, value), so a change only needs the old value's key XORed out and the new one's XORed
+ * in. Instead of a table of random numbers the keys come from a 64-bit mixer (SplitMix64's finalizer)
+ * over the feature and value, which behaves like an unbounded random table; that way money, chips and
+ * takes are hashed by their exact values.
+ */
+public final class Zobrist {
+    // fields: the kinds of object that own hashed fields
+    public static final int GAME = 1;
+    public static final int PLAYER = 2;
+    public static final int BOARD = 3;
+    public static final int DECK = 4;
+    public static final int SET = 5;
+    public static final int CARD = 6;
+    public static final int ROLE = 7;
+
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    private Zobrist() {}
+
+
+    // key: the key for one field of one object holding value; slot is the object's id among its kind
+    public static long key(int kind, int field, int slot, long value) {
+        long feature = (long) kind << 56 | (long) field << 40 | slot & 0xFFFFFFFFL;
+        return mix(feature * GAMMA + value); // spreads features apart, so small values stay clear of other features
+    }
+
+
+    // mix: SplitMix64's finalizer; the offset keeps mix(0) from being 0
+    public static long mix(long z) {
+        z += GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}